@@ -0,0 +1,121 @@
+package com.onesignal.cordova.benchmarks;
+
+import com.onesignal.cordova.OneSignalSerializer;
+import com.onesignal.cordova.PayloadEncoder;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * JSONObject tree plus toString() (what PluginResult used to do) against {@link PayloadEncoder} writing the same
+ * bytes directly. Setup fails if the two outputs differ.
+ *
+ * The android-json artifact predates Android's switch to insertion-ordered JSONObject, so keys come out in hash order
+ * here; the check therefore compares length and parsed structure rather than the raw strings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncoderBenchmark {
+    @Param({"SMALL", "TYPICAL", "LARGE"})
+    public Payloads.Size size;
+
+    private StubNotification notification;
+    private StubNotificationClickEvent notificationClickEvent;
+    private StubInAppMessageClickEvent inAppMessageClickEvent;
+
+    @Setup
+    public void setUp() throws JSONException {
+        notification = Payloads.notification(size);
+        notificationClickEvent = Payloads.notificationClickEvent(size);
+        inAppMessageClickEvent = Payloads.inAppMessageClickEvent(size);
+
+        assertEquivalent(treeNotification(), encodeNotification());
+        assertEquivalent(treeNotificationClickEvent(), encodeNotificationClickEvent());
+        assertEquivalent(treeInAppMessageClickEvent(), encodeInAppMessageClickEvent());
+    }
+
+    private static void assertEquivalent(String expected, String actual) throws JSONException {
+        Object expectedValue = new JSONTokener(expected).nextValue();
+        Object actualValue = new JSONTokener(actual).nextValue();
+        if (expected.length() != actual.length() || !jsonEquals(expectedValue, actualValue)) {
+            throw new IllegalStateException("Encoder output differs:\n" + expected + "\n" + actual);
+        }
+    }
+
+    private static boolean jsonEquals(Object a, Object b) throws JSONException {
+        if (a instanceof JSONObject && b instanceof JSONObject) {
+            JSONObject objectA = (JSONObject) a;
+            JSONObject objectB = (JSONObject) b;
+            if (objectA.length() != objectB.length()) {
+                return false;
+            }
+            Iterator<String> keys = objectA.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                if (!objectB.has(key) || !jsonEquals(objectA.get(key), objectB.get(key))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (a instanceof JSONArray && b instanceof JSONArray) {
+            JSONArray arrayA = (JSONArray) a;
+            JSONArray arrayB = (JSONArray) b;
+            if (arrayA.length() != arrayB.length()) {
+                return false;
+            }
+            for (int i = 0; i < arrayA.length(); i++) {
+                if (!jsonEquals(arrayA.get(i), arrayB.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return a.equals(b);
+    }
+
+    @Benchmark
+    public String treeNotification() throws JSONException {
+        return OneSignalSerializer.serializeNotification(notification).toString();
+    }
+
+    @Benchmark
+    public String encodeNotification() throws JSONException {
+        return PayloadEncoder.encodeNotification(notification, OneSignalSerializer.ALL_NOTIFICATION_FIELDS);
+    }
+
+    @Benchmark
+    public String treeNotificationClickEvent() throws JSONException {
+        return OneSignalSerializer.serializeNotificationClickEvent(notificationClickEvent)
+                .toString();
+    }
+
+    @Benchmark
+    public String encodeNotificationClickEvent() throws JSONException {
+        return PayloadEncoder.encodeNotificationClickEvent(
+                notificationClickEvent, OneSignalSerializer.ALL_NOTIFICATION_FIELDS);
+    }
+
+    @Benchmark
+    public String treeInAppMessageClickEvent() throws JSONException {
+        return OneSignalSerializer.serializeInAppMessageClickEvent(inAppMessageClickEvent)
+                .toString();
+    }
+
+    @Benchmark
+    public String encodeInAppMessageClickEvent() throws JSONException {
+        return PayloadEncoder.encodeInAppMessageClickEvent(inAppMessageClickEvent);
+    }
+}
@@ -0,0 +1,64 @@
+package com.onesignal.cordova.benchmarks;
+
+import com.onesignal.cordova.BoundedJsonConverter;
+import com.onesignal.cordova.OneSignalUtils;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of converting action arguments from JSON into the Maps the SDK takes: trackEvent properties, and the flat
+ * tag/alias/trigger objects.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonConversionBenchmark {
+    @Param({"SMALL", "TYPICAL", "LARGE"})
+    public Payloads.Size size;
+
+    private JSONObject properties;
+    private JSONObject stringMap;
+
+    @Setup
+    public void setUp() throws JSONException {
+        properties = Payloads.properties(size);
+        stringMap = Payloads.stringMap(size);
+        if (!LegacyJsonConverter.jsonObjectToMap(properties).equals(BoundedJsonConverter.DEFAULT.toMap(properties))) {
+            throw new IllegalStateException("BoundedJsonConverter output differs from the legacy converter");
+        }
+    }
+
+    /** trackEvent properties, with the recursive converter used before BoundedJsonConverter */
+    @Benchmark
+    public Map<String, Object> legacyToMap() throws JSONException {
+        return LegacyJsonConverter.jsonObjectToMap(properties);
+    }
+
+    /** trackEvent properties */
+    @Benchmark
+    public Map<String, Object> boundedToMap() throws JSONException {
+        return BoundedJsonConverter.DEFAULT.toMap(properties);
+    }
+
+    /** addTags and addAliases */
+    @Benchmark
+    public Map<String, String> tagsToMap() throws JSONException {
+        return OneSignalUtils.jsonObjectToStringMap(stringMap);
+    }
+
+    /** addTriggers */
+    @Benchmark
+    public Map<String, String> triggersToMap() throws JSONException {
+        return OneSignalUtils.jsonObjectToTriggerMap(stringMap);
+    }
+}
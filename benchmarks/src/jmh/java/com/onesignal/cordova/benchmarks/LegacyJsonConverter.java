@@ -0,0 +1,48 @@
+package com.onesignal.cordova.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The recursive, unbounded trackEvent properties converter that BoundedJsonConverter replaced, kept verbatim as the
+ * baseline for {@link JsonConversionBenchmark}.
+ */
+final class LegacyJsonConverter {
+    private LegacyJsonConverter() {}
+
+    static Map<String, Object> jsonObjectToMap(JSONObject json) throws JSONException {
+        Map<String, Object> map = new HashMap<>();
+        Iterator<String> keys = json.keys();
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = json.get(key);
+            map.put(key, convertJsonValue(value));
+        }
+
+        return map;
+    }
+
+    static Object convertJsonValue(Object value) throws JSONException {
+        if (value == JSONObject.NULL) {
+            return null;
+        } else if (value instanceof JSONObject) {
+            return jsonObjectToMap((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            JSONArray jsonArray = (JSONArray) value;
+            Collection<Object> list = new ArrayList<>();
+            for (int i = 0; i < jsonArray.length(); i++) {
+                list.add(convertJsonValue(jsonArray.get(i)));
+            }
+            return list;
+        } else {
+            return value;
+        }
+    }
+}
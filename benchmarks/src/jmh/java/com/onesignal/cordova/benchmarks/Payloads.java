@@ -0,0 +1,200 @@
+package com.onesignal.cordova.benchmarks;
+
+import com.onesignal.notifications.IActionButton;
+import com.onesignal.notifications.INotification;
+import java.util.ArrayList;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Deterministic payloads for the benchmarks, in three sizes:
+ *
+ * SMALL is a title and body only. TYPICAL is a marketing push with a handful of additional data keys, two action
+ * buttons and a big picture. LARGE approaches the 4 KB FCM limit and carries a group of ten notifications; for the
+ * JSON conversion paths it is a deeply nested object with a thousand leaves.
+ */
+public final class Payloads {
+    public enum Size {
+        SMALL(0, 0, 0, 3),
+        TYPICAL(8, 2, 0, 20),
+        LARGE(60, 3, 10, 500);
+
+        final int additionalDataKeys;
+        final int actionButtons;
+        final int groupedNotifications;
+        final int mapEntries;
+
+        Size(int additionalDataKeys, int actionButtons, int groupedNotifications, int mapEntries) {
+            this.additionalDataKeys = additionalDataKeys;
+            this.actionButtons = actionButtons;
+            this.groupedNotifications = groupedNotifications;
+            this.mapEntries = mapEntries;
+        }
+    }
+
+    private Payloads() {}
+
+    public static StubNotification notification(Size size) throws JSONException {
+        StubNotification notification = notification(size, 0);
+        if (size.groupedNotifications > 0) {
+            List<INotification> grouped = new ArrayList<>(size.groupedNotifications);
+            for (int i = 1; i <= size.groupedNotifications; i++) {
+                grouped.add(notification(size, i));
+            }
+            notification.groupedNotifications = grouped;
+            notification.groupKey = "campaign-42";
+            notification.groupMessage = "You have " + size.groupedNotifications + " new messages";
+        }
+        return notification;
+    }
+
+    private static StubNotification notification(Size size, int index) throws JSONException {
+        StubNotification notification = new StubNotification();
+        notification.notificationId = String.format("5f3c1a2e-8b7d-4c1e-9a0f-%012d", index);
+        notification.androidNotificationId = -1_234_567 + index;
+        notification.title = "Flash sale " + index;
+        notification.body = "Everything in the spring collection is 30% off until midnight.";
+        notification.sentTime = 1_700_000_000L + index;
+        notification.fromProjectNumber = "123456789012";
+
+        if (size != Size.SMALL) {
+            notification.templateId = "9d2f0b6e-7c41-4f3a-b1d8-2e6c5a0f7b93";
+            notification.templateName = "Spring sale";
+            notification.launchURL = "https://example.com/sale?utm_source=onesignal&utm_campaign=spring";
+            notification.smallIcon = "ic_stat_onesignal_default";
+            notification.largeIcon = "https://cdn.example.com/icons/store-192.png";
+            notification.bigPicture = "https://cdn.example.com/banners/spring-sale-1024x512.jpg";
+            notification.smallIconAccentColor = "FF1E88E5";
+            notification.ledColor = "FF1E88E5";
+            notification.sound = "cash_register";
+            notification.collapseId = "spring-sale";
+        }
+
+        JSONObject additionalData = null;
+        if (size.additionalDataKeys > 0) {
+            additionalData = new JSONObject();
+            for (int i = 0; i < size.additionalDataKeys; i++) {
+                additionalData.put("key_" + i, i % 3 == 0 ? i : "value-" + i + "-abcdefghij");
+            }
+            notification.additionalData = additionalData;
+        }
+
+        if (size.actionButtons > 0) {
+            List<IActionButton> buttons = new ArrayList<>(size.actionButtons);
+            for (int i = 0; i < size.actionButtons; i++) {
+                buttons.add(new StubNotification.StubActionButton("action-" + i, "Action " + i, "ic_action_" + i));
+            }
+            notification.actionButtons = buttons;
+        }
+
+        notification.rawPayload = rawPayload(notification, additionalData);
+        return notification;
+    }
+
+    /** The FCM data message the SDK would have parsed the notification from */
+    private static String rawPayload(StubNotification notification, JSONObject additionalData) throws JSONException {
+        JSONObject custom = new JSONObject();
+        custom.put("i", notification.notificationId);
+        if (notification.launchURL != null) {
+            custom.put("u", notification.launchURL);
+        }
+        if (additionalData != null) {
+            custom.put("a", additionalData);
+        }
+
+        JSONObject payload = new JSONObject();
+        payload.put("google.delivered_priority", "high");
+        payload.put("google.sent_time", notification.sentTime);
+        payload.put("google.ttl", notification.ttl);
+        payload.put("google.original_priority", "high");
+        payload.put("custom", custom.toString());
+        payload.put("from", notification.fromProjectNumber);
+        payload.put("title", notification.title);
+        payload.put("alert", notification.body);
+        payload.put("pri", notification.priority);
+        if (notification.bigPicture != null) {
+            payload.put("bicon", notification.bigPicture);
+            payload.put("licon", notification.largeIcon);
+            payload.put("sicon", notification.smallIcon);
+        }
+        if (notification.actionButtons != null) {
+            JSONArray buttons = new JSONArray();
+            for (IActionButton button : notification.actionButtons) {
+                buttons.put(new JSONObject()
+                        .put("id", button.getId())
+                        .put("text", button.getText())
+                        .put("icon", button.getIcon()));
+            }
+            payload.put("actionButtons", buttons.toString());
+        }
+        return payload.toString();
+    }
+
+    public static StubNotificationClickEvent notificationClickEvent(Size size) throws JSONException {
+        StubNotification notification = notification(size);
+        String actionId = notification.actionButtons != null ? "action-0" : null;
+        return new StubNotificationClickEvent(notification, actionId, notification.launchURL);
+    }
+
+    public static StubInAppMessageClickEvent inAppMessageClickEvent(Size size) {
+        String url = size == Size.SMALL ? null : "https://example.com/upgrade?plan=annual";
+        return new StubInAppMessageClickEvent("8a1b5c3d-2e4f-4a6b-9c8d-7e6f5a4b3c2d", "upgrade-button", url);
+    }
+
+    /** Flat String-valued object as sent by addTags, addAliases and addTriggers */
+    public static JSONObject stringMap(Size size) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (int i = 0; i < size.mapEntries; i++) {
+            json.put("key_" + i, "value_" + i);
+        }
+        return json;
+    }
+
+    /**
+     * trackEvent properties: a mix of strings, numbers, booleans, nulls, nested objects and arrays; LARGE nests four
+     * levels deep
+     */
+    public static JSONObject properties(Size size) throws JSONException {
+        switch (size) {
+            case SMALL:
+                return new JSONObject().put("item", "sku-123").put("price", 9.99).put("inStock", true);
+            case TYPICAL:
+                return nestedProperties(20, 1);
+            default:
+                return nestedProperties(10, 4);
+        }
+    }
+
+    private static JSONObject nestedProperties(int width, int depth) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (int i = 0; i < width; i++) {
+            String key = "prop_" + i;
+            switch (i % 6) {
+                case 0:
+                    json.put(key, "value-" + i);
+                    break;
+                case 1:
+                    json.put(key, i * 1.5);
+                    break;
+                case 2:
+                    json.put(key, i % 4 == 0);
+                    break;
+                case 3:
+                    json.put(key, JSONObject.NULL);
+                    break;
+                case 4:
+                    JSONArray array = new JSONArray();
+                    for (int j = 0; j < 5; j++) {
+                        array.put(j % 2 == 0 ? j : "item-" + j);
+                    }
+                    json.put(key, array);
+                    break;
+                default:
+                    json.put(key, depth > 1 ? nestedProperties(width, depth - 1) : new JSONObject().put("leaf", i));
+            }
+        }
+        return json;
+    }
+}
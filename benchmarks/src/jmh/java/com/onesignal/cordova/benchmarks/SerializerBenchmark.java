@@ -0,0 +1,69 @@
+package com.onesignal.cordova.benchmarks;
+
+import com.onesignal.cordova.OneSignalSerializer;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of turning SDK events into the JSON sent to JS. The *AndEncode variants add the toString() that PluginResult
+ * performs before the payload crosses the bridge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializerBenchmark {
+    @Param({"SMALL", "TYPICAL", "LARGE"})
+    public Payloads.Size size;
+
+    private StubNotification notification;
+    private StubNotificationClickEvent notificationClickEvent;
+    private StubInAppMessageClickEvent inAppMessageClickEvent;
+
+    @Setup
+    public void setUp() throws JSONException {
+        notification = Payloads.notification(size);
+        notificationClickEvent = Payloads.notificationClickEvent(size);
+        inAppMessageClickEvent = Payloads.inAppMessageClickEvent(size);
+    }
+
+    @Benchmark
+    public JSONObject serializeNotification() throws JSONException {
+        return OneSignalSerializer.serializeNotification(notification);
+    }
+
+    @Benchmark
+    public String serializeNotificationAndEncode() throws JSONException {
+        return OneSignalSerializer.serializeNotification(notification).toString();
+    }
+
+    @Benchmark
+    public JSONObject serializeNotificationClickEvent() throws JSONException {
+        return OneSignalSerializer.serializeNotificationClickEvent(notificationClickEvent);
+    }
+
+    @Benchmark
+    public String serializeNotificationClickEventAndEncode() throws JSONException {
+        return OneSignalSerializer.serializeNotificationClickEvent(notificationClickEvent)
+                .toString();
+    }
+
+    @Benchmark
+    public JSONObject serializeInAppMessageClickEvent() throws JSONException {
+        return OneSignalSerializer.serializeInAppMessageClickEvent(inAppMessageClickEvent);
+    }
+
+    @Benchmark
+    public String serializeInAppMessageClickEventAndEncode() throws JSONException {
+        return OneSignalSerializer.serializeInAppMessageClickEvent(inAppMessageClickEvent)
+                .toString();
+    }
+}
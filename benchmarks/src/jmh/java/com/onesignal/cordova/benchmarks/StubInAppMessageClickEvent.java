@@ -0,0 +1,53 @@
+package com.onesignal.cordova.benchmarks;
+
+import com.onesignal.inAppMessages.IInAppMessage;
+import com.onesignal.inAppMessages.IInAppMessageClickEvent;
+import com.onesignal.inAppMessages.IInAppMessageClickResult;
+import com.onesignal.inAppMessages.InAppMessageActionUrlType;
+
+public class StubInAppMessageClickEvent implements IInAppMessageClickEvent, IInAppMessageClickResult, IInAppMessage {
+    private final String messageId;
+    private final String actionId;
+    private final String url;
+
+    StubInAppMessageClickEvent(String messageId, String actionId, String url) {
+        this.messageId = messageId;
+        this.actionId = actionId;
+        this.url = url;
+    }
+
+    @Override
+    public IInAppMessage getMessage() {
+        return this;
+    }
+
+    @Override
+    public IInAppMessageClickResult getResult() {
+        return this;
+    }
+
+    @Override
+    public String getMessageId() {
+        return messageId;
+    }
+
+    @Override
+    public String getActionId() {
+        return actionId;
+    }
+
+    @Override
+    public InAppMessageActionUrlType getUrlTarget() {
+        return url == null ? null : InAppMessageActionUrlType.BROWSER;
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public boolean getClosingMessage() {
+        return true;
+    }
+}
@@ -0,0 +1,199 @@
+package com.onesignal.cordova.benchmarks;
+
+import com.onesignal.notifications.BackgroundImageLayout;
+import com.onesignal.notifications.IActionButton;
+import com.onesignal.notifications.INotification;
+import java.util.List;
+import org.json.JSONObject;
+
+/** Plain-field {@link INotification}, populated by {@link Payloads} */
+public class StubNotification implements INotification {
+    int androidNotificationId;
+    List<INotification> groupedNotifications;
+    String notificationId;
+    String templateName;
+    String templateId;
+    String title;
+    String body;
+    JSONObject additionalData;
+    String smallIcon;
+    String largeIcon;
+    String bigPicture;
+    String smallIconAccentColor;
+    String launchURL;
+    String sound;
+    String ledColor;
+    int lockScreenVisibility = 1;
+    String groupKey;
+    String groupMessage;
+    List<IActionButton> actionButtons;
+    String fromProjectNumber;
+    String collapseId;
+    int priority = 5;
+    long sentTime;
+    int ttl = 259_200;
+    String rawPayload;
+
+    @Override
+    public int getAndroidNotificationId() {
+        return androidNotificationId;
+    }
+
+    @Override
+    public List<INotification> getGroupedNotifications() {
+        return groupedNotifications;
+    }
+
+    @Override
+    public String getNotificationId() {
+        return notificationId;
+    }
+
+    @Override
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    @Override
+    public String getTemplateId() {
+        return templateId;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getBody() {
+        return body;
+    }
+
+    @Override
+    public JSONObject getAdditionalData() {
+        return additionalData;
+    }
+
+    @Override
+    public String getSmallIcon() {
+        return smallIcon;
+    }
+
+    @Override
+    public String getLargeIcon() {
+        return largeIcon;
+    }
+
+    @Override
+    public String getBigPicture() {
+        return bigPicture;
+    }
+
+    @Override
+    public String getSmallIconAccentColor() {
+        return smallIconAccentColor;
+    }
+
+    @Override
+    public String getLaunchURL() {
+        return launchURL;
+    }
+
+    @Override
+    public String getSound() {
+        return sound;
+    }
+
+    @Override
+    public String getLedColor() {
+        return ledColor;
+    }
+
+    @Override
+    public int getLockScreenVisibility() {
+        return lockScreenVisibility;
+    }
+
+    @Override
+    public String getGroupKey() {
+        return groupKey;
+    }
+
+    @Override
+    public String getGroupMessage() {
+        return groupMessage;
+    }
+
+    @Override
+    public List<IActionButton> getActionButtons() {
+        return actionButtons;
+    }
+
+    @Override
+    public String getFromProjectNumber() {
+        return fromProjectNumber;
+    }
+
+    @Override
+    public BackgroundImageLayout getBackgroundImageLayout() {
+        return null;
+    }
+
+    @Override
+    public String getCollapseId() {
+        return collapseId;
+    }
+
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    @Override
+    public long getSentTime() {
+        return sentTime;
+    }
+
+    @Override
+    public int getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public String getRawPayload() {
+        return rawPayload;
+    }
+
+    /** {@link IActionButton} whose toString matches what the serializer stringifies on Android */
+    static class StubActionButton implements IActionButton {
+        private final String id;
+        private final String text;
+        private final String icon;
+
+        StubActionButton(String id, String text, String icon) {
+            this.id = id;
+            this.text = text;
+            this.icon = icon;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+
+        @Override
+        public String getIcon() {
+            return icon;
+        }
+
+        @Override
+        public String toString() {
+            return "ActionButton(id=" + id + ", text=" + text + ", icon=" + icon + ")";
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.onesignal.cordova.benchmarks;
+
+import com.onesignal.notifications.INotification;
+import com.onesignal.notifications.INotificationClickEvent;
+import com.onesignal.notifications.INotificationClickResult;
+
+public class StubNotificationClickEvent implements INotificationClickEvent, INotificationClickResult {
+    private final INotification notification;
+    private final String actionId;
+    private final String url;
+
+    StubNotificationClickEvent(INotification notification, String actionId, String url) {
+        this.notification = notification;
+        this.actionId = actionId;
+        this.url = url;
+    }
+
+    @Override
+    public INotification getNotification() {
+        return notification;
+    }
+
+    @Override
+    public INotificationClickResult getResult() {
+        return this;
+    }
+
+    @Override
+    public String getActionId() {
+        return actionId;
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+}
@@ -0,0 +1,260 @@
+package com.onesignal.cordova.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.onesignal.cordova.EventCallbackRegistry;
+import com.onesignal.cordova.PendingEventBuffer;
+import com.onesignal.cordova.WillDisplayEventStore;
+import com.onesignal.notifications.IDisplayableNotification;
+import com.onesignal.notifications.INotificationWillDisplayEvent;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.apache.cordova.CallbackContext;
+import org.junit.jupiter.api.RepeatedTest;
+
+/**
+ * Races the event path against JS: SDK threads deliver events while callbacks are registered, replaced and removed,
+ * and will-display events are answered while their decision deadline fires. Every run must end with each event
+ * received, and each notification displayed, exactly once.
+ *
+ *   gradle :benchmarks:test
+ */
+class ConcurrencyStressTest {
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 2_000;
+    private static final String EVENT = EventCallbackRegistry.NOTIFICATION_CLICK;
+
+    @RepeatedTest(20)
+    void registrationRacingDeliveryLosesAndDuplicatesNothing() throws Exception {
+        EventCallbackRegistry registry = new EventCallbackRegistry();
+        registry.configureBuffers(THREADS * EVENTS_PER_THREAD, PendingEventBuffer.DropPolicy.DROP_NEWEST);
+        List<CallbackContext> callbacks = new ArrayList<>();
+        AtomicBoolean delivering = new AtomicBoolean(true);
+
+        // JS registering, then replacing, the default subscription while events arrive
+        Thread registrar = new Thread(() -> {
+            int count = 0;
+            do {
+                CallbackContext callback = new CallbackContext("click-" + count++);
+                synchronized (callbacks) {
+                    callbacks.add(callback);
+                }
+                registry.register(EVENT, callback);
+                Thread.yield();
+            } while (delivering.get());
+        });
+
+        runConcurrently(registrar, thread -> {
+            for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                assertTrue(registry.deliverEncoded(EVENT, payload(thread, i)));
+            }
+        });
+        delivering.set(false);
+        registrar.join();
+
+        List<String> received = new ArrayList<>();
+        for (CallbackContext callback : callbacks) {
+            List<String> messages = callback.getMessages();
+            assertInOrderPerThread(messages);
+            received.addAll(messages);
+        }
+        assertEachOnce(received);
+    }
+
+    @RepeatedTest(20)
+    void subscriptionChurnLeavesOtherSubscriptionsWhole() throws Exception {
+        EventCallbackRegistry registry = new EventCallbackRegistry();
+        CallbackContext first = new CallbackContext("first");
+        CallbackContext second = new CallbackContext("second");
+        registry.register(EVENT, "first", first);
+        registry.register(EVENT, "second", second);
+        AtomicBoolean delivering = new AtomicBoolean(true);
+
+        // another subscription coming and going, which swaps the subscription array each time
+        Thread churn = new Thread(() -> {
+            int count = 0;
+            do {
+                registry.register(EVENT, "churn", new CallbackContext("churn-" + count++));
+                registry.unregister("churn");
+            } while (delivering.get());
+        });
+
+        runConcurrently(churn, thread -> {
+            for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                assertTrue(registry.deliverEncoded(EVENT, payload(thread, i)));
+            }
+        });
+        delivering.set(false);
+        churn.join();
+
+        for (CallbackContext callback : new CallbackContext[] {first, second}) {
+            assertInOrderPerThread(callback.getMessages());
+            assertEachOnce(callback.getMessages());
+        }
+    }
+
+    @RepeatedTest(10)
+    void deadlineRacingAnswersDisplaysEachNotificationOnce() throws Exception {
+        int total = THREADS * EVENTS_PER_THREAD;
+        WillDisplayEventStore store = new WillDisplayEventStore(total, WillDisplayEventStore.DEFAULT_TTL_MS);
+        store.setDecisionDeadline(1, true);
+        AtomicIntegerArray displayed = new AtomicIntegerArray(total);
+        ConcurrentLinkedQueue<Integer> unanswered = new ConcurrentLinkedQueue<>();
+        AtomicBoolean storing = new AtomicBoolean(true);
+
+        // the WebCore thread answering: display right away, display after preventDefault, or let the SDK display
+        Thread answering = new Thread(() -> {
+            Integer index;
+            while ((index = unanswered.poll()) != null || storing.get()) {
+                if (index == null) {
+                    Thread.yield();
+                    continue;
+                }
+                String notificationId = "n" + index;
+                switch (index % 3) {
+                    case 0:
+                        if (store.markProceeded(notificationId)) {
+                            displayed.incrementAndGet(index);
+                        }
+                        break;
+                    case 1:
+                        store.markPrevented(notificationId, false);
+                        store.markProceeded(notificationId);
+                        // fall through to display it later
+                    default:
+                        INotificationWillDisplayEvent event = store.remove(notificationId);
+                        if (event != null) {
+                            event.getNotification().display();
+                        }
+                }
+            }
+        });
+
+        runConcurrently(answering, thread -> {
+            for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                int index = thread * EVENTS_PER_THREAD + i;
+                store.put("n" + index, willDisplayEvent(index, displayed), System.currentTimeMillis());
+                unanswered.add(index);
+                if (ThreadLocalRandom.current().nextInt(16) == 0) {
+                    // let some deadlines pass before JS gets to them
+                    Thread.sleep(1);
+                }
+            }
+        });
+        storing.set(false);
+        answering.join();
+
+        // deadlines of the last events may still be running on the scheduler
+        long waitUntil = System.currentTimeMillis() + 10_000;
+        while (sum(displayed) < total && System.currentTimeMillis() < waitUntil) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+
+        for (int i = 0; i < total; i++) {
+            assertEquals(1, displayed.get(i), "displays of notification " + i);
+        }
+        assertEquals(0, store.size());
+    }
+
+    private interface Producer {
+        void run(int thread) throws Exception;
+    }
+
+    /** Starts the other thread and {@link #THREADS} producers together, then waits for the producers */
+    private static void runConcurrently(Thread other, Producer producer) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicInteger nextThread = new AtomicInteger();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    producer.run(nextThread.getAndIncrement());
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        other.start();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!failures.isEmpty()) {
+            throw new AssertionError(failures.peek());
+        }
+    }
+
+    private static String payload(int thread, int index) {
+        return "\"" + thread + ":" + index + "\"";
+    }
+
+    /** Events from one thread must reach a callback in the order that thread delivered them */
+    private static void assertInOrderPerThread(List<String> messages) {
+        Map<String, Integer> lastIndex = new HashMap<>();
+        for (String message : messages) {
+            String[] parts = message.substring(1, message.length() - 1).split(":");
+            int index = Integer.parseInt(parts[1]);
+            Integer previous = lastIndex.put(parts[0], index);
+            assertTrue(previous == null || previous < index, "out of order: " + message + " after " + previous);
+        }
+    }
+
+    private static void assertEachOnce(List<String> messages) {
+        Set<String> unique = new HashSet<>(messages);
+        assertEquals(messages.size(), unique.size(), "duplicate deliveries");
+        assertEquals(THREADS * EVENTS_PER_THREAD, unique.size(), "lost events");
+    }
+
+    private static int sum(AtomicIntegerArray counts) {
+        int sum = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            sum += counts.get(i);
+        }
+        return sum;
+    }
+
+    /** A will-display event whose notification counts its displays */
+    private static INotificationWillDisplayEvent willDisplayEvent(int index, AtomicIntegerArray displayed) {
+        IDisplayableNotification notification = (IDisplayableNotification) Proxy.newProxyInstance(
+                IDisplayableNotification.class.getClassLoader(),
+                new Class<?>[] {IDisplayableNotification.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "display":
+                            displayed.incrementAndGet(index);
+                            return null;
+                        case "getNotificationId":
+                            return "n" + index;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        return (INotificationWillDisplayEvent) Proxy.newProxyInstance(
+                INotificationWillDisplayEvent.class.getClassLoader(),
+                new Class<?>[] {INotificationWillDisplayEvent.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getNotification")) {
+                        return notification;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,130 @@
+package com.onesignal.cordova.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.onesignal.cordova.OutcomeAggregator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class OutcomeAggregatorTest {
+    private static final long LONG_INTERVAL_MS = 60_000;
+
+    /** One sink call, e.g. {@code outcome:a}, {@code value:coins=5.0} or {@code unique:a} */
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean failing;
+    private final CountDownLatch called = new CountDownLatch(1);
+
+    private final OutcomeAggregator outcomes = new OutcomeAggregator(new OutcomeAggregator.Sink() {
+        @Override
+        public boolean addOutcome(String name) {
+            return record("outcome:" + name);
+        }
+
+        @Override
+        public boolean addOutcomeWithValue(String name, float value) {
+            return record("value:" + name + "=" + value);
+        }
+
+        @Override
+        public boolean addUniqueOutcome(String name) {
+            return record("unique:" + name);
+        }
+    });
+
+    @Test
+    void sendsEveryCallStraightThroughWhenDisabled() {
+        outcomes.addOutcome("a");
+        outcomes.addOutcomeWithValue("coins", 2);
+        outcomes.addUniqueOutcome("u");
+        outcomes.addUniqueOutcome("u");
+
+        assertEquals(Arrays.asList("outcome:a", "value:coins=2.0", "unique:u", "unique:u"), calls);
+    }
+
+    @Test
+    void sumsValuesAndKeepsEveryPlainOutcome() {
+        outcomes.configure(LONG_INTERVAL_MS, true);
+        outcomes.addOutcomeWithValue("coins", 2);
+        outcomes.addOutcome("a");
+        outcomes.addOutcomeWithValue("coins", 3);
+        outcomes.addOutcome("a");
+        assertTrue(calls.isEmpty());
+
+        outcomes.flush();
+
+        assertEquals(Arrays.asList("outcome:a", "outcome:a", "value:coins=5.0"), calls);
+    }
+
+    @Test
+    void dropsRepeatUniqueOutcomesUnlessSendingFailed() {
+        outcomes.configure(LONG_INTERVAL_MS, true);
+        failing = true;
+        outcomes.addUniqueOutcome("u");
+        failing = false;
+        outcomes.addUniqueOutcome("u");
+        outcomes.addUniqueOutcome("u");
+
+        assertEquals(Arrays.asList("unique:u", "unique:u"), calls);
+    }
+
+    @Test
+    void putsBackWhatAFailedFlushCouldNotSend() {
+        outcomes.configure(LONG_INTERVAL_MS, true);
+        outcomes.addOutcome("a");
+        outcomes.addOutcome("a");
+        outcomes.addOutcomeWithValue("coins", 2);
+        failing = true;
+        outcomes.flush();
+        assertEquals(Collections.singletonList("outcome:a"), calls);
+
+        failing = false;
+        calls.clear();
+        outcomes.addOutcomeWithValue("coins", 3);
+        outcomes.flush();
+
+        assertEquals(Arrays.asList("outcome:a", "outcome:a", "value:coins=5.0"), calls);
+    }
+
+    @Test
+    void flushesOnTheExecutorAfterTheInterval() throws Exception {
+        outcomes.configure(20, true);
+        outcomes.addOutcomeWithValue("coins", 2);
+
+        assertTrue(called.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("value:coins=2.0"), calls);
+    }
+
+    @Test
+    void flushesOnBackgroundOnlyWhenAskedTo() {
+        outcomes.configure(LONG_INTERVAL_MS, false);
+        outcomes.addOutcome("a");
+        outcomes.onBackground();
+        assertTrue(calls.isEmpty());
+
+        outcomes.configure(LONG_INTERVAL_MS, true);
+        outcomes.onBackground();
+        assertEquals(Collections.singletonList("outcome:a"), calls);
+    }
+
+    @Test
+    void disablingFlushesWhatIsPending() {
+        outcomes.configure(LONG_INTERVAL_MS, true);
+        outcomes.addOutcomeWithValue("coins", 2);
+        outcomes.configure(0, true);
+
+        assertEquals(Collections.singletonList("value:coins=2.0"), calls);
+    }
+
+    private boolean record(String call) {
+        calls.add(call);
+        called.countDown();
+        return !failing;
+    }
+}
@@ -0,0 +1,159 @@
+package com.onesignal.cordova.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.onesignal.cordova.TrackEventQueue;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The track event queue against a real directory: events reach the sink in the order they were accepted whether they
+ * waited in memory, in the spill file or in a spill file left by a previous process.
+ */
+class TrackEventQueueTest {
+    private static final String SPILL_FILE = "onesignal_track_events.jsonl";
+
+    @TempDir
+    File directory;
+
+    private final List<String> tracked = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void keepsOrderAcrossMemorySpillAndReplay() throws Exception {
+        TrackEventQueue[] queue = new TrackEventQueue[1];
+        queue[0] = new TrackEventQueue(directory, (name, properties) -> {
+            tracked.add(name);
+            if (name.equals("e2")) {
+                // accepted while the spill file is being replayed, so they spill to a fresh file behind it
+                queue[0].accept("e4", null, null);
+                queue[0].accept("e5", null, null);
+            }
+        });
+        queue[0].setCapacity(2);
+        for (int i = 0; i < 4; i++) {
+            queue[0].accept("e" + i, null, null);
+        }
+        assertEquals(2, queue[0].getQueuedCount());
+        assertEquals(2, queue[0].getSpilledCount());
+
+        queue[0].start();
+        queue[0].flush();
+
+        assertEquals(Arrays.asList("e0", "e1", "e2", "e3", "e4", "e5"), tracked);
+        assertEquals(4, queue[0].getSpilledCount());
+        assertFalse(new File(directory, SPILL_FILE).exists());
+    }
+
+    @Test
+    void replaysEventsLeftByAPreviousProcessFirst() throws Exception {
+        TrackEventQueue previous = new TrackEventQueue(directory, (name, properties) -> tracked.add(name));
+        previous.setCapacity(1);
+        previous.accept("a", new JSONObject().put("n", 1), null);
+        previous.accept("b", null, null);
+        previous.accept("c", null, null);
+        previous.persist();
+
+        List<JSONObject> properties = Collections.synchronizedList(new ArrayList<>());
+        TrackEventQueue queue = new TrackEventQueue(directory, (name, props) -> {
+            tracked.add(name);
+            properties.add(props);
+        });
+        queue.accept("d", null, null);
+        queue.start();
+        queue.flush();
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), tracked);
+        assertEquals(1, properties.get(0).getInt("n"));
+        assertNull(properties.get(1));
+    }
+
+    @Test
+    void skipsALastLineCutShort() throws Exception {
+        write(new File(directory, SPILL_FILE), "[\"a\",null]\n[\"b\",{\"n\":2}]\n[\"c\",{\"n\"");
+
+        TrackEventQueue queue = new TrackEventQueue(directory, (name, properties) -> tracked.add(name));
+        queue.accept("d", null, null);
+        queue.start();
+        queue.flush();
+
+        assertEquals(Arrays.asList("a", "b", "d"), tracked);
+        assertFalse(new File(directory, SPILL_FILE).exists());
+    }
+
+    @Test
+    void persistRewritesTheSpillFileThroughATempFile() throws Exception {
+        File spillFile = new File(directory, SPILL_FILE);
+        File tmp = new File(directory, SPILL_FILE + ".tmp");
+        // left over from a rewrite the process died in
+        write(tmp, "[\"stale\",null]\n");
+
+        TrackEventQueue queue = new TrackEventQueue(directory, (name, properties) -> tracked.add(name));
+        queue.setCapacity(2);
+        queue.accept("a", null, null);
+        queue.accept("b", null, null);
+        queue.accept("c", null, null);
+        queue.persist();
+
+        assertEquals(
+                Arrays.asList("[\"a\",null]", "[\"b\",null]", "[\"c\",null]"),
+                Files.readAllLines(spillFile.toPath(), StandardCharsets.UTF_8));
+        assertFalse(tmp.exists());
+        assertEquals(0, queue.getQueuedCount());
+        assertEquals(3, queue.getSpilledCount());
+
+        // accepted after persisting, so it has to follow what was persisted
+        queue.accept("d", null, null);
+        queue.start();
+        queue.flush();
+        assertEquals(Arrays.asList("a", "b", "c", "d"), tracked);
+    }
+
+    @Test
+    void flushWaitsForTheDrainButNoLongerThanFiveSeconds() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        TrackEventQueue queue = new TrackEventQueue(directory, (name, properties) -> {
+            if (name.equals("stuck")) {
+                release.await();
+            }
+            Thread.sleep(5);
+            tracked.add(name);
+        });
+        queue.start();
+        for (int i = 0; i < 20; i++) {
+            queue.accept("e" + i, null, null);
+        }
+        queue.flush();
+        assertEquals(20, tracked.size());
+
+        try {
+            queue.accept("stuck", null, null);
+            long startedAt = System.nanoTime();
+            queue.flush();
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            assertTrue(waitedMs >= 4_900 && waitedMs < 10_000, "flush waited " + waitedMs + " ms");
+            assertFalse(tracked.contains("stuck"));
+        } finally {
+            release.countDown();
+        }
+        queue.flush();
+        assertTrue(tracked.contains("stuck"));
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package com.onesignal.cordova.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.onesignal.cordova.TriggerMirror;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class TriggerMirrorTest {
+    /** One sink call, e.g. {@code add {a=1}}, {@code remove [b]} or {@code clear} */
+    private final List<String> calls = new ArrayList<>();
+
+    private final TriggerMirror triggers = new TriggerMirror(new TriggerMirror.Sink() {
+        @Override
+        public void addTriggers(Map<String, String> added) {
+            calls.add("add " + new TreeMap<>(added));
+        }
+
+        @Override
+        public void removeTriggers(Collection<String> keys) {
+            List<String> sorted = new ArrayList<>(keys);
+            Collections.sort(sorted);
+            calls.add("remove " + sorted);
+        }
+
+        @Override
+        public void clearTriggers() {
+            calls.add("clear");
+        }
+    });
+
+    @Test
+    void skipsTriggersSetToTheValueTheyHave() {
+        triggers.add(map("a", "1", "b", "1"));
+        triggers.add(map("a", "1", "b", "2"));
+        triggers.add(map("a", "1"));
+
+        assertEquals(Arrays.asList("add {a=1, b=1}", "add {b=2}"), calls);
+        assertEquals(2, triggers.getSkippedCount());
+    }
+
+    @Test
+    void forwardsRemovingUnknownKeysUntilEveryTriggerIsKnown() {
+        triggers.remove(Collections.singletonList("native"));
+        triggers.remove(Collections.singletonList("native"));
+        triggers.clear();
+        triggers.remove(Collections.singletonList("other"));
+
+        assertEquals(Arrays.asList("remove [native]", "clear"), calls);
+        assertEquals(2, triggers.getSkippedCount());
+    }
+
+    @Test
+    void firstReplaceClearsThenLaterOnesSendOnlyTheDifference() {
+        triggers.replace(map("a", "1", "b", "1"));
+        triggers.replace(map("a", "1", "b", "2", "c", "1"));
+        triggers.replace(map("c", "1"));
+        triggers.replace(map("c", "1"));
+
+        assertEquals(
+                Arrays.asList("clear", "add {a=1, b=1}", "add {b=2, c=1}", "remove [a, b]"),
+                calls);
+        triggers.add(map("a", "1"));
+        assertEquals("add {a=1}", calls.get(calls.size() - 1));
+    }
+
+    private static Map<String, String> map(String... keysAndValues) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
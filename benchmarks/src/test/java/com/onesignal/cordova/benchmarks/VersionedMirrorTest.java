@@ -0,0 +1,131 @@
+package com.onesignal.cordova.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.onesignal.cordova.VersionedMirror;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+class VersionedMirrorTest {
+    private static final long MAX_AGE_MS = 60_000;
+
+    private final VersionedMirror mirror = new VersionedMirror();
+
+    @Test
+    void needsSyncUntilLoadedAndIgnoresWritesBeforeThat() throws Exception {
+        assertTrue(mirror.needsSync(0, MAX_AGE_MS));
+        mirror.put(map("a", "1"));
+
+        mirror.sync(map("b", "1"));
+
+        JSONObject full = mirror.changesSince(0);
+        assertTrue(full.getBoolean("full"));
+        assertEquals("{\"b\":\"1\"}", full.getJSONObject("values").toString());
+        long version = full.getLong("version");
+        assertFalse(mirror.needsSync(version, MAX_AGE_MS));
+        assertTrue(mirror.needsSync(version, 0));
+    }
+
+    @Test
+    void servesPluginWritesAsADeltaWithoutSyncing() throws Exception {
+        mirror.sync(map("a", "1", "b", "1", "c", "1"));
+        long version = mirror.getVersion();
+
+        mirror.put(map("a", "2", "c", "1"));
+        mirror.remove(Arrays.asList("b", "missing"));
+
+        assertFalse(mirror.needsSync(version, MAX_AGE_MS));
+        JSONObject delta = mirror.changesSince(version);
+        assertFalse(delta.getBoolean("full"));
+        assertEquals(version + 2, delta.getLong("version"));
+        assertEquals("{\"a\":\"2\"}", delta.getJSONObject("changed").toString());
+        assertEquals("[\"b\"]", delta.getJSONArray("removed").toString());
+    }
+
+    @Test
+    void leavesTheVersionAloneWhenNothingChanges() throws Exception {
+        mirror.sync(map("a", "1"));
+        long version = mirror.getVersion();
+
+        mirror.put(map("a", "1"));
+        mirror.remove(Collections.singletonList("b"));
+        mirror.sync(map("a", "1"));
+
+        assertEquals(version, mirror.getVersion());
+        JSONObject delta = mirror.changesSince(version);
+        assertEquals(0, delta.getJSONObject("changed").length());
+        assertEquals(0, delta.getJSONArray("removed").length());
+    }
+
+    @Test
+    void syncPicksUpChangesMadeElsewhere() throws Exception {
+        mirror.sync(map("a", "1", "b", "1"));
+        long version = mirror.getVersion();
+
+        mirror.sync(map("a", "1", "c", "1"));
+
+        JSONObject delta = mirror.changesSince(version);
+        assertEquals(version + 1, delta.getLong("version"));
+        assertEquals("{\"c\":\"1\"}", delta.getJSONObject("changed").toString());
+        assertEquals("[\"b\"]", delta.getJSONArray("removed").toString());
+    }
+
+    @Test
+    void resetFallsBackToAFullSnapshot() throws Exception {
+        mirror.sync(map("a", "1"));
+        long version = mirror.getVersion();
+
+        mirror.reset();
+        assertTrue(mirror.needsSync(version, MAX_AGE_MS));
+        mirror.sync(map("b", "1"));
+
+        JSONObject full = mirror.changesSince(version);
+        assertTrue(full.getBoolean("full"));
+        assertEquals("{\"b\":\"1\"}", full.getJSONObject("values").toString());
+        assertTrue(full.getLong("version") > version);
+    }
+
+    @Test
+    void aVersionFromTheFutureGetsAFullSnapshot() throws Exception {
+        mirror.sync(map("a", "1"));
+
+        assertTrue(mirror.needsSync(mirror.getVersion() + 1, MAX_AGE_MS));
+        assertTrue(mirror.changesSince(mirror.getVersion() + 1).getBoolean("full"));
+    }
+
+    @Test
+    void pruningTombstonesFallsBackToAFullSnapshot() throws Exception {
+        Map<String, String> values = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i <= VersionedMirror.MAX_TOMBSTONES; i++) {
+            values.put("k" + i, "1");
+            keys.add("k" + i);
+        }
+        mirror.sync(values);
+        long version = mirror.getVersion();
+
+        mirror.remove(keys.subList(0, VersionedMirror.MAX_TOMBSTONES));
+        assertFalse(mirror.changesSince(version).getBoolean("full"));
+        mirror.remove(keys.subList(VersionedMirror.MAX_TOMBSTONES, keys.size()));
+
+        assertTrue(mirror.changesSince(version).getBoolean("full"));
+        JSONObject delta = mirror.changesSince(mirror.getVersion());
+        assertFalse(delta.getBoolean("full"));
+    }
+
+    private static Map<String, String> map(String... keysAndValues) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
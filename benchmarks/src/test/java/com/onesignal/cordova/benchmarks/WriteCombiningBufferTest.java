@@ -0,0 +1,152 @@
+package com.onesignal.cordova.benchmarks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.onesignal.cordova.WriteCombiningBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class WriteCombiningBufferTest {
+    private static final long LONG_INTERVAL_MS = 60_000;
+
+    /** One sink write, e.g. {@code +{a=1} -[b]} */
+    private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean failing;
+    private final CountDownLatch written = new CountDownLatch(1);
+
+    private final WriteCombiningBuffer buffer = new WriteCombiningBuffer(this::write);
+
+    @Test
+    void combinesWritesToOneNetAddAndRemove() {
+        buffer.configure(LONG_INTERVAL_MS, 100);
+        buffer.add(map("a", "1", "b", "1"));
+        buffer.add(map("a", "2"));
+        buffer.remove(Arrays.asList("b", "c"));
+        assertEquals(3, buffer.getPendingCount());
+        assertTrue(writes.isEmpty());
+
+        buffer.flush();
+
+        assertEquals(Collections.singletonList("+{a=2} -[b, c]"), writes);
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    void dropsWritesThatRepeatTheLastOneSent() {
+        buffer.configure(LONG_INTERVAL_MS, 100);
+        buffer.add(map("a", "1"));
+        buffer.remove(Collections.singletonList("b"));
+        buffer.flush();
+        buffer.add(map("a", "1", "c", "1"));
+        buffer.remove(Collections.singletonList("b"));
+        buffer.flush();
+
+        assertEquals(Arrays.asList("+{a=1} -[b]", "+{c=1} -[]"), writes);
+        assertEquals(2, buffer.getDroppedCount());
+    }
+
+    @Test
+    void sendsAgainWhatAFailedWriteCouldNotSend() {
+        buffer.configure(LONG_INTERVAL_MS, 100);
+        failing = true;
+        buffer.add(map("a", "1"));
+        buffer.flush();
+        failing = false;
+        buffer.add(map("a", "1"));
+        buffer.flush();
+
+        assertEquals(Arrays.asList("+{a=1} -[]", "+{a=1} -[]"), writes);
+        assertEquals(0, buffer.getDroppedCount());
+    }
+
+    @Test
+    void writesThroughWhenDisabledWithoutRepeats() {
+        buffer.add(map("a", "1"));
+        buffer.add(map("a", "1"));
+        buffer.remove(Collections.singletonList("a"));
+        buffer.remove(Collections.singletonList("a"));
+
+        assertEquals(Arrays.asList("+{a=1} -[]", "+{} -[a]"), writes);
+        assertEquals(2, buffer.getDroppedCount());
+    }
+
+    @Test
+    void failedWriteThroughIsSentAgain() {
+        failing = true;
+        buffer.add(map("a", "1"));
+        failing = false;
+        buffer.add(map("a", "1"));
+
+        assertEquals(Arrays.asList("+{a=1} -[]", "+{a=1} -[]"), writes);
+    }
+
+    @Test
+    void resetForgetsWhatWasWritten() {
+        buffer.add(map("a", "1"));
+        buffer.configure(LONG_INTERVAL_MS, 100);
+        buffer.add(map("b", "1"));
+        buffer.reset();
+        buffer.add(map("a", "1"));
+        buffer.flush();
+
+        assertEquals(Arrays.asList("+{a=1} -[]", "+{a=1} -[]"), writes);
+    }
+
+    @Test
+    void disablingFlushesWhatIsPending() {
+        buffer.configure(LONG_INTERVAL_MS, 100);
+        buffer.add(map("a", "1"));
+        buffer.configure(0, 100);
+
+        assertEquals(Collections.singletonList("+{a=1} -[]"), writes);
+        buffer.add(map("b", "1"));
+        assertEquals(Arrays.asList("+{a=1} -[]", "+{b=1} -[]"), writes);
+    }
+
+    @Test
+    void flushesOnTheExecutorAfterTheInterval() throws Exception {
+        buffer.configure(20, 100);
+        buffer.add(map("a", "1"));
+        buffer.add(map("b", "1"));
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("+{a=1, b=1} -[]"), writes);
+    }
+
+    @Test
+    void flushesOnTheExecutorOnceMaxPendingKeysAreHeld() throws Exception {
+        buffer.configure(LONG_INTERVAL_MS, 2);
+        buffer.add(map("a", "1"));
+        buffer.remove(Collections.singletonList("b"));
+
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("+{a=1} -[b]"), writes);
+    }
+
+    private boolean write(Map<String, String> additions, Collection<String> removals) {
+        List<String> sortedRemovals = new ArrayList<>(removals);
+        Collections.sort(sortedRemovals);
+        writes.add("+" + new TreeMap<>(additions) + " -" + sortedRemovals);
+        written.countDown();
+        return !failing;
+    }
+
+    private static Map<String, String> map(String... keysAndValues) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+}
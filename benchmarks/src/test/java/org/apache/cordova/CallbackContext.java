@@ -0,0 +1,36 @@
+package org.apache.cordova;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test double for Cordova's CallbackContext: instead of reaching a WebView, it keeps every JSON message sent to it,
+ * in the order they were sent.
+ */
+public class CallbackContext {
+    private final String callbackId;
+    private final List<String> messages = new ArrayList<>();
+
+    public CallbackContext(String callbackId) {
+        this.callbackId = callbackId;
+    }
+
+    public String getCallbackId() {
+        return callbackId;
+    }
+
+    public void sendPluginResult(PluginResult pluginResult) {
+        if (pluginResult.getMessageType() != PluginResult.MESSAGE_TYPE_JSON) {
+            return;
+        }
+        synchronized (messages) {
+            messages.add(pluginResult.getMessage());
+        }
+    }
+
+    public List<String> getMessages() {
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
+    }
+}
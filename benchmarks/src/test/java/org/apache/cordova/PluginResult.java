@@ -0,0 +1,84 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Test double for Cordova's PluginResult, which only ships inside cordova-android. Has the members the plugin uses,
+ * with the same message type constants.
+ */
+public class PluginResult {
+    public enum Status {
+        NO_RESULT,
+        OK,
+        CLASS_NOT_FOUND_EXCEPTION,
+        ILLEGAL_ACCESS_EXCEPTION,
+        INSTANTIATION_EXCEPTION,
+        MALFORMED_URL_EXCEPTION,
+        IO_EXCEPTION,
+        INVALID_ACTION,
+        JSON_EXCEPTION,
+        ERROR
+    }
+
+    public static final int MESSAGE_TYPE_STRING = 1;
+    public static final int MESSAGE_TYPE_JSON = 2;
+    public static final int MESSAGE_TYPE_NUMBER = 3;
+    public static final int MESSAGE_TYPE_BOOLEAN = 4;
+    public static final int MESSAGE_TYPE_NULL = 5;
+
+    private final int status;
+    private final int messageType;
+    private final String message;
+    private boolean keepCallback;
+
+    public PluginResult(Status status) {
+        this(status, MESSAGE_TYPE_NULL, null);
+    }
+
+    public PluginResult(Status status, String message) {
+        this(status, MESSAGE_TYPE_STRING, JSONObject.quote(message));
+    }
+
+    public PluginResult(Status status, JSONObject message) {
+        this(status, MESSAGE_TYPE_JSON, message.toString());
+    }
+
+    public PluginResult(Status status, JSONArray message) {
+        this(status, MESSAGE_TYPE_JSON, message.toString());
+    }
+
+    public PluginResult(Status status, int message) {
+        this(status, MESSAGE_TYPE_NUMBER, Integer.toString(message));
+    }
+
+    public PluginResult(Status status, boolean message) {
+        this(status, MESSAGE_TYPE_BOOLEAN, Boolean.toString(message));
+    }
+
+    private PluginResult(Status status, int messageType, String message) {
+        this.status = status.ordinal();
+        this.messageType = messageType;
+        this.message = message;
+    }
+
+    public void setKeepCallback(boolean keepCallback) {
+        this.keepCallback = keepCallback;
+    }
+
+    public boolean getKeepCallback() {
+        return keepCallback;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public int getMessageType() {
+        return messageType;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,102 @@
+package com.onesignal.cordova;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * Maps each plugin action name to its handler and dispatch flags, resolved once when the plugin initializes instead
+ * of on every call.
+ *
+ * Built-in actions are registered by {@link OneSignalPush}. Apps and submodules can add their own actions with
+ * {@link #registerCustom} without touching the plugin; built-in actions take precedence over custom ones with the
+ * same name.
+ */
+public class ActionRegistry {
+    /** Run on the plugin's serial background executor instead of Cordova's WebCore thread */
+    public static final int RUN_IN_BACKGROUND = 1;
+    /** Keeps a callback open, resolves asynchronously or would recurse, so cannot be part of executeBatch */
+    public static final int NOT_BATCHABLE = 1 << 1;
+    /** Needs an initialized SDK; queued behind a pending async init even when it normally runs inline */
+    public static final int REQUIRES_INIT = 1 << 2;
+
+    public interface ActionHandler {
+        boolean handle(JSONArray data, CallbackContext callbackContext) throws JSONException;
+    }
+
+    /** Hook invoked after every dispatched action, e.g. for timing and error accounting */
+    public interface ActionObserver {
+        void onActionDispatched(String action, long durationNanos, boolean handled, Throwable error);
+    }
+
+    public static class Action {
+        final String name;
+        final ActionHandler handler;
+        final int flags;
+
+        Action(String name, ActionHandler handler, int flags) {
+            this.name = name;
+            this.handler = handler;
+            this.flags = flags;
+        }
+
+        public boolean hasFlag(int flag) {
+            return (flags & flag) != 0;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, Action> customActions = new ConcurrentHashMap<>();
+
+    private final HashMap<String, Action> builtInActions = new HashMap<>();
+    private volatile ActionObserver observer;
+
+    /** Registers an app-provided action. Flags are a combination of {@link #RUN_IN_BACKGROUND} etc. */
+    public static void registerCustom(String action, ActionHandler handler, int flags) {
+        customActions.put(action, new Action(action, handler, flags));
+    }
+
+    public static void unregisterCustom(String action) {
+        customActions.remove(action);
+    }
+
+    /** Only called while the plugin initializes, before any action is dispatched */
+    public void register(String action, ActionHandler handler) {
+        register(action, handler, 0);
+    }
+
+    public void register(String action, ActionHandler handler, int flags) {
+        builtInActions.put(action, new Action(action, handler, flags));
+    }
+
+    /** Returns the action registered under the name, or null if there is none */
+    public Action get(String action) {
+        Action builtIn = builtInActions.get(action);
+        return builtIn != null ? builtIn : customActions.get(action);
+    }
+
+    public void setObserver(ActionObserver observer) {
+        this.observer = observer;
+    }
+
+    public boolean dispatch(Action action, JSONArray data, CallbackContext callbackContext) throws JSONException {
+        ActionObserver currentObserver = observer;
+        if (currentObserver == null) {
+            return action.handler.handle(data, callbackContext);
+        }
+
+        long start = System.nanoTime();
+        boolean handled = false;
+        Throwable error = null;
+        try {
+            handled = action.handler.handle(data, callbackContext);
+            return handled;
+        } catch (JSONException | RuntimeException e) {
+            error = e;
+            throw e;
+        } finally {
+            currentObserver.onActionDispatched(action.name, System.nanoTime() - start, handled, error);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.onesignal.cordova;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Captures the result of a single action dispatched as part of an executeBatch call, instead of sending it across the
+ * bridge on its own.
+ */
+public class BatchCallbackContext extends CallbackContext {
+    private PluginResult pluginResult;
+
+    public BatchCallbackContext(String callbackId, CordovaWebView webView) {
+        super(callbackId, webView);
+    }
+
+    @Override
+    public void sendPluginResult(PluginResult pluginResult) {
+        // the action's last result wins, mirroring what JS would have seen with keepCallback
+        this.pluginResult = pluginResult;
+    }
+
+    /**
+     * Builds the batch entry for this action: {action, success, result}. An action that sent an error result, or
+     * that the dispatcher rejected, is reported with success false.
+     */
+    public JSONObject toBatchEntry(String action, boolean handled) throws JSONException {
+        JSONObject entry = new JSONObject();
+        entry.put("action", action);
+
+        if (pluginResult == null) {
+            entry.put("success", handled);
+            entry.put("result", JSONObject.NULL);
+            return entry;
+        }
+
+        entry.put("success", handled && pluginResult.getStatus() == PluginResult.Status.OK.ordinal());
+        entry.put("result", new JSONTokener(pluginResult.getMessage()).nextValue());
+        return entry;
+    }
+}
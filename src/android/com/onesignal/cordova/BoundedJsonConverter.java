@@ -0,0 +1,243 @@
+package com.onesignal.cordova;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Converts a JSONObject from JS (e.g. trackEvent properties) into the plain Maps and Lists the SDK takes.
+ *
+ * The tree is walked with an explicit stack rather than recursion, so deep nesting can't overflow the thread's stack.
+ * The stack's frames are reused per thread, and every Map and List is created at its final size. Input past any of
+ * the limits is rejected with a {@link LimitExceededException} naming the limit and the path where it was hit, before
+ * anything is sent.
+ */
+public class BoundedJsonConverter {
+    public static final int DEFAULT_MAX_DEPTH = 32;
+    public static final int DEFAULT_MAX_KEYS = 5000;
+    public static final int DEFAULT_MAX_STRING_LENGTH = 64 * 1024;
+
+    public static class LimitExceededException extends JSONException {
+        private static final long serialVersionUID = 1L;
+
+        public LimitExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /** One object or array being converted; reused across conversions on the same thread */
+    private static class Frame {
+        JSONObject object;
+        Iterator<String> keys;
+        Map<String, Object> map;
+
+        JSONArray array;
+        List<Object> list;
+
+        /** Position of the next array element; after a nested value, the one after it */
+        int index;
+
+        /** The key of the nested value or the value that failed, null inside an array; for error paths */
+        String key;
+
+        void reset(JSONObject object, Map<String, Object> map) {
+            this.object = object;
+            this.keys = object.keys();
+            this.map = map;
+        }
+
+        void reset(JSONArray array, List<Object> list) {
+            this.array = array;
+            this.list = list;
+            this.index = 0;
+        }
+
+        /** Drops every reference so a pooled frame doesn't keep a converted tree alive */
+        void clear() {
+            object = null;
+            keys = null;
+            map = null;
+            array = null;
+            list = null;
+            key = null;
+        }
+
+        void add(Object value) {
+            if (map != null) {
+                map.put(key, value);
+            } else {
+                list.add(value);
+            }
+        }
+    }
+
+    /** Each thread's frame stack, grown to the deepest tree it has converted (at most maxDepth frames) */
+    private static final ThreadLocal<ArrayList<Frame>> frameStacks = new ThreadLocal<ArrayList<Frame>>() {
+        @Override
+        protected ArrayList<Frame> initialValue() {
+            return new ArrayList<>();
+        }
+    };
+
+    public static final BoundedJsonConverter DEFAULT =
+            new BoundedJsonConverter(DEFAULT_MAX_DEPTH, DEFAULT_MAX_KEYS, DEFAULT_MAX_STRING_LENGTH);
+
+    private final int maxDepth;
+    private final int maxKeys;
+    private final int maxStringLength;
+
+    /**
+     * @param maxDepth levels of nesting, counting the top-level object as 1
+     * @param maxKeys object keys and array elements in the whole tree
+     * @param maxStringLength characters in any key or string value
+     */
+    public BoundedJsonConverter(int maxDepth, int maxKeys, int maxStringLength) {
+        this.maxDepth = maxDepth > 0 ? maxDepth : DEFAULT_MAX_DEPTH;
+        this.maxKeys = maxKeys > 0 ? maxKeys : DEFAULT_MAX_KEYS;
+        this.maxStringLength = maxStringLength > 0 ? maxStringLength : DEFAULT_MAX_STRING_LENGTH;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /** JSONObject.NULL becomes null, objects become HashMaps, arrays ArrayLists; other values are kept as they are */
+    public Map<String, Object> toMap(JSONObject json) throws JSONException {
+        int keyCount = json.length();
+        if (keyCount > maxKeys) {
+            throw new LimitExceededException("More than " + maxKeys + " keys");
+        }
+
+        Map<String, Object> root = newMap(keyCount);
+        ArrayList<Frame> frames = frameStacks.get();
+        // index of the innermost open frame; the tree is depth + 1 levels deep there
+        int depth = 0;
+        frameAt(frames, 0).reset(json, root);
+
+        try {
+            while (depth >= 0) {
+                Frame frame = frames.get(depth);
+                // converts leaves in a tight loop until the frame ends or a nested object or array turns up
+                Object nested = null;
+                if (frame.object != null) {
+                    JSONObject object = frame.object;
+                    Iterator<String> keys = frame.keys;
+                    Map<String, Object> map = frame.map;
+                    while (keys.hasNext()) {
+                        String key = keys.next();
+                        Object value = object.get(key);
+                        if (key.length() > maxStringLength) {
+                            frame.key = key;
+                            throw limitExceeded("Key longer than " + maxStringLength + " characters", frames, depth);
+                        }
+                        if (value instanceof JSONObject || value instanceof JSONArray) {
+                            frame.key = key;
+                            nested = value;
+                            break;
+                        }
+                        if (value instanceof String && ((String) value).length() > maxStringLength) {
+                            frame.key = key;
+                            throw stringTooLong(frames, depth);
+                        }
+                        // Primitive types (String, Integer, Double, Boolean, etc.)
+                        map.put(key, value == JSONObject.NULL ? null : value);
+                    }
+                } else {
+                    JSONArray array = frame.array;
+                    List<Object> list = frame.list;
+                    for (int i = frame.index, length = array.length(); i < length; i++) {
+                        Object value = array.get(i);
+                        if (value instanceof JSONObject || value instanceof JSONArray) {
+                            frame.index = i + 1;
+                            nested = value;
+                            break;
+                        }
+                        if (value instanceof String && ((String) value).length() > maxStringLength) {
+                            frame.index = i + 1;
+                            throw stringTooLong(frames, depth);
+                        }
+                        list.add(value == JSONObject.NULL ? null : value);
+                    }
+                }
+
+                if (nested == null) {
+                    frame.clear();
+                    depth--;
+                } else if (nested instanceof JSONObject) {
+                    JSONObject object = (JSONObject) nested;
+                    keyCount = checkNested(object.length(), keyCount, frames, depth);
+                    Map<String, Object> child = newMap(object.length());
+                    frame.add(child);
+                    frameAt(frames, ++depth).reset(object, child);
+                } else {
+                    JSONArray array = (JSONArray) nested;
+                    keyCount = checkNested(array.length(), keyCount, frames, depth);
+                    List<Object> child = new ArrayList<>(array.length());
+                    frame.add(child);
+                    frameAt(frames, ++depth).reset(array, child);
+                }
+            }
+        } finally {
+            for (int i = 0; i <= depth; i++) {
+                frames.get(i).clear();
+            }
+        }
+
+        return root;
+    }
+
+    /** Checks the limits for a nested object or array of {@code length} entries; returns the new key count */
+    private int checkNested(int length, int keyCount, ArrayList<Frame> frames, int depth)
+            throws LimitExceededException {
+        if (depth + 2 > maxDepth) {
+            throw limitExceeded("Nested deeper than " + maxDepth + " levels", frames, depth);
+        }
+        keyCount += length;
+        if (keyCount > maxKeys) {
+            throw limitExceeded("More than " + maxKeys + " keys", frames, depth);
+        }
+        return keyCount;
+    }
+
+    private LimitExceededException stringTooLong(ArrayList<Frame> frames, int depth) {
+        return limitExceeded("String longer than " + maxStringLength + " characters", frames, depth);
+    }
+
+    private static Frame frameAt(ArrayList<Frame> frames, int depth) {
+        if (depth == frames.size()) {
+            frames.add(new Frame());
+        }
+        return frames.get(depth);
+    }
+
+    /** A HashMap that holds {@code size} entries without rehashing */
+    private static Map<String, Object> newMap(int size) {
+        return new HashMap<>(size < 3 ? size + 1 : (int) (size / 0.75f) + 1);
+    }
+
+    private static LimitExceededException limitExceeded(String reason, ArrayList<Frame> frames, int depth) {
+        StringBuilder path = new StringBuilder("$");
+        for (int i = 0; i <= depth; i++) {
+            Frame frame = frames.get(i);
+            if (frame.key != null) {
+                path.append('.').append(frame.key);
+            } else {
+                path.append('[').append(frame.index - 1).append(']');
+            }
+        }
+        return new LimitExceededException(reason + " at " + path);
+    }
+}
@@ -0,0 +1,153 @@
+package com.onesignal.cordova;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Per-name call counts, error counts and latency histograms for plugin actions, native event callbacks,
+ * {@link CallbackHelper} sends and JS decisions on events native code waits on.
+ *
+ * Recording is a map lookup plus a few uncontended atomic adds, cheap enough to leave on in release builds.
+ * Histogram buckets are powers of two in microseconds: bucket i counts calls that took less than 2^i us, with the
+ * last bucket also holding everything slower.
+ */
+public class BridgeMetrics {
+    public static final String CATEGORY_ACTIONS = "actions";
+    public static final String CATEGORY_EVENTS = "events";
+    public static final String CATEGORY_CALLBACKS = "callbacks";
+    public static final String CATEGORY_DECISIONS = "decisions";
+
+    public static final String CALLBACK_SEND = "sendPluginResult";
+
+    private static final int BUCKET_COUNT = 24;
+
+    private static class Stats {
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+        void record(long durationNanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(durationNanos);
+
+            long max;
+            while (durationNanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, durationNanos)) {
+                // retry until the larger value sticks
+            }
+
+            long micros = durationNanos / 1_000;
+            int bucket = micros <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(micros);
+            buckets.incrementAndGet(Math.min(bucket, BUCKET_COUNT - 1));
+        }
+
+        JSONObject toJSON(boolean reset) throws JSONException {
+            long calls = reset ? count.sumThenReset() : count.sum();
+            long failures = reset ? errors.sumThenReset() : errors.sum();
+            long total = reset ? totalNanos.sumThenReset() : totalNanos.sum();
+            long max = reset ? maxNanos.getAndSet(0) : maxNanos.get();
+
+            JSONArray histogram = new JSONArray();
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                histogram.put(reset ? buckets.getAndSet(i, 0) : buckets.get(i));
+            }
+
+            JSONObject json = new JSONObject();
+            json.put("count", calls);
+            json.put("errors", failures);
+            json.put("totalMs", total / 1_000_000.0);
+            json.put("meanMs", calls == 0 ? 0 : total / 1_000_000.0 / calls);
+            json.put("maxMs", max / 1_000_000.0);
+            json.put("histogram", histogram);
+            return json;
+        }
+    }
+
+    private static final ConcurrentHashMap<String, ConcurrentHashMap<String, Stats>> categories =
+            new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = true;
+    private static volatile long sinceMs = System.currentTimeMillis();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    public static void recordAction(String action, long durationNanos, boolean failed) {
+        record(CATEGORY_ACTIONS, action, durationNanos, failed);
+    }
+
+    public static void recordEvent(String event, long durationNanos, boolean failed) {
+        record(CATEGORY_EVENTS, event, durationNanos, failed);
+    }
+
+    public static void recordCallback(String name, long durationNanos, boolean failed) {
+        record(CATEGORY_CALLBACKS, name, durationNanos, failed);
+    }
+
+    /** How long JS took to answer an event natively waiting on it; failed if it was resolved without JS */
+    public static void recordDecision(String event, long durationNanos, boolean timedOut) {
+        record(CATEGORY_DECISIONS, event, durationNanos, timedOut);
+    }
+
+    private static void record(String category, String name, long durationNanos, boolean failed) {
+        if (!enabled) {
+            return;
+        }
+        ConcurrentHashMap<String, Stats> stats = categories.get(category);
+        if (stats == null) {
+            categories.putIfAbsent(category, new ConcurrentHashMap<>());
+            stats = categories.get(category);
+        }
+        Stats entry = stats.get(name);
+        if (entry == null) {
+            stats.putIfAbsent(name, new Stats());
+            entry = stats.get(name);
+        }
+        entry.record(durationNanos, failed);
+    }
+
+    /** Returns all metrics recorded since the last reset, optionally resetting them */
+    public static JSONObject toJSON(boolean reset) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("enabled", enabled);
+        json.put("sinceMs", sinceMs);
+
+        JSONArray bucketBounds = new JSONArray();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            bucketBounds.put(1L << i);
+        }
+        json.put("histogramBucketsUs", bucketBounds);
+
+        String[] names = {CATEGORY_ACTIONS, CATEGORY_EVENTS, CATEGORY_CALLBACKS, CATEGORY_DECISIONS};
+        for (String category : names) {
+            JSONObject categoryJson = new JSONObject();
+            ConcurrentHashMap<String, Stats> stats = categories.get(category);
+            if (stats != null) {
+                for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+                    categoryJson.put(entry.getKey(), entry.getValue().toJSON(reset));
+                }
+            }
+            json.put(category, categoryJson);
+        }
+
+        if (reset) {
+            sinceMs = System.currentTimeMillis();
+        }
+        return json;
+    }
+}
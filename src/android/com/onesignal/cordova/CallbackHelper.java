@@ -2,6 +2,7 @@ package com.onesignal.cordova;
 
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 public class CallbackHelper {
@@ -16,25 +17,43 @@ public class CallbackHelper {
 
         PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, jsonObject);
         pluginResult.setKeepCallback(true);
-        callbackContext.sendPluginResult(pluginResult);
+        send(callbackContext, pluginResult);
+    }
+
+    public static void callbackSuccessArray(CallbackContext callbackContext, JSONArray jsonArray) {
+        // in case there are no data
+        if (jsonArray == null) {
+            jsonArray = new JSONArray();
+        }
+
+        PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, jsonArray);
+        pluginResult.setKeepCallback(true);
+        send(callbackContext, pluginResult);
+    }
+
+    /** Sends JSON that was already encoded, e.g. by {@link PayloadEncoder}, as an object result */
+    public static void callbackSuccessEncoded(CallbackContext callbackContext, String encodedJson) {
+        PluginResult pluginResult = new EncodedJSONResult(PluginResult.Status.OK, encodedJson);
+        pluginResult.setKeepCallback(true);
+        send(callbackContext, pluginResult);
     }
 
     public static void callbackSuccessInt(CallbackContext callbackContext, int param) {
         PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, param);
         pluginResult.setKeepCallback(true);
-        callbackContext.sendPluginResult(pluginResult);
+        send(callbackContext, pluginResult);
     }
 
     public static void callbackSuccessBoolean(CallbackContext callbackContext, boolean param) {
         PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, param);
         pluginResult.setKeepCallback(true);
-        callbackContext.sendPluginResult(pluginResult);
+        send(callbackContext, pluginResult);
     }
 
     public static void callbackSuccessString(CallbackContext callbackContext, String param) {
         PluginResult pluginResult = new PluginResult(PluginResult.Status.OK, param);
         pluginResult.setKeepCallback(true);
-        callbackContext.sendPluginResult(pluginResult);
+        send(callbackContext, pluginResult);
     }
 
     public static void callbackError(CallbackContext callbackContext, JSONObject jsonObject) {
@@ -46,12 +65,58 @@ public class CallbackHelper {
 
         PluginResult pluginResult = new PluginResult(PluginResult.Status.ERROR, jsonObject);
         pluginResult.setKeepCallback(true);
-        callbackContext.sendPluginResult(pluginResult);
+        send(callbackContext, pluginResult);
     }
 
     public static void callbackError(CallbackContext callbackContext, String str) {
         PluginResult pluginResult = new PluginResult(PluginResult.Status.ERROR, str);
         pluginResult.setKeepCallback(true);
-        callbackContext.sendPluginResult(pluginResult);
+        send(callbackContext, pluginResult);
+    }
+
+    /** Tells JS no more results will come on this callback, so it can drop it */
+    public static void callbackRelease(CallbackContext callbackContext) {
+        PluginResult pluginResult = new PluginResult(PluginResult.Status.NO_RESULT);
+        pluginResult.setKeepCallback(false);
+        send(callbackContext, pluginResult);
+    }
+
+    private static void send(CallbackContext callbackContext, PluginResult pluginResult) {
+        if (!BridgeMetrics.isEnabled()) {
+            callbackContext.sendPluginResult(pluginResult);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            callbackContext.sendPluginResult(pluginResult);
+            failed = false;
+        } finally {
+            BridgeMetrics.recordCallback(BridgeMetrics.CALLBACK_SEND, System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * A JSON result whose text is supplied as-is. Cordova's bridge only reads the message type and message, so this
+     * reaches JS exactly like a result built from the parsed JSONObject.
+     */
+    private static class EncodedJSONResult extends PluginResult {
+        private final String encodedJson;
+
+        EncodedJSONResult(Status status, String encodedJson) {
+            super(status);
+            this.encodedJson = encodedJson;
+        }
+
+        @Override
+        public int getMessageType() {
+            return MESSAGE_TYPE_JSON;
+        }
+
+        @Override
+        public String getMessage() {
+            return encodedJson;
+        }
     }
 }
@@ -0,0 +1,216 @@
+package com.onesignal.cordova;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.cordova.CallbackContext;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * JS callbacks for native events, keyed by event name.
+ *
+ * Each event has a default subscription, which a registration without an id replaces, plus any number of
+ * subscriptions with ids that JS adds and removes. A payload is encoded once and the same text is sent to each.
+ *
+ * Callbacks are registered from Cordova's WebCore thread and read from OneSignal SDK threads when an event fires.
+ * Backing the registry with a {@link ConcurrentHashMap} safely publishes each registration to the SDK threads without
+ * locking on the event path.
+ *
+ * Events delivered through {@link #deliver} before JS has registered a callback are held in a per-event
+ * {@link PendingEventBuffer} and replayed in order on registration.
+ */
+public class EventCallbackRegistry {
+    public static final String NOTIFICATION_WILL_DISPLAY = "notificationWillDisplay";
+    public static final String NOTIFICATION_CLICK = "notificationClick";
+    public static final String IN_APP_MESSAGE_CLICK = "inAppMessageClick";
+    public static final String IN_APP_MESSAGE_WILL_DISPLAY = "inAppMessageWillDisplay";
+    public static final String IN_APP_MESSAGE_DID_DISPLAY = "inAppMessageDidDisplay";
+    public static final String IN_APP_MESSAGE_WILL_DISMISS = "inAppMessageWillDismiss";
+    public static final String IN_APP_MESSAGE_DID_DISMISS = "inAppMessageDidDismiss";
+    public static final String PERMISSION_CHANGE = "permissionChange";
+    public static final String PUSH_SUBSCRIPTION_CHANGE = "pushSubscriptionChange";
+    public static final String USER_STATE_CHANGE = "userStateChange";
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 16;
+
+    /** One JS callback for an event; the default subscription has a null id */
+    private static class Subscription {
+        final String id;
+        final CallbackContext callbackContext;
+
+        Subscription(String id, CallbackContext callbackContext) {
+            this.id = id;
+            this.callbackContext = callbackContext;
+        }
+    }
+
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+
+    /** Copy-on-write: each change swaps in a new array under the event's buffer lock, so delivery never locks */
+    private final ConcurrentHashMap<String, Subscription[]> subscriptions = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, PendingEventBuffer> buffers = new ConcurrentHashMap<>();
+
+    private volatile int bufferCapacity = DEFAULT_BUFFER_CAPACITY;
+    private volatile PendingEventBuffer.DropPolicy bufferDropPolicy = PendingEventBuffer.DropPolicy.DROP_OLDEST;
+
+    /** Sets the event's default subscription, replacing the callback registered before it */
+    public void register(String event, CallbackContext callbackContext) {
+        register(event, null, callbackContext);
+    }
+
+    /**
+     * Adds a subscription to the event, or replaces the callback of the subscription with the same id. A null id is
+     * the default subscription.
+     */
+    public void register(String event, String id, CallbackContext callbackContext) {
+        PendingEventBuffer buffer = getBuffer(event);
+        synchronized (buffer) {
+            // replay before publishing the callback so events racing with registration queue up behind the replay
+            List<String> pending = buffer.drain();
+            for (String payload : pending) {
+                CallbackHelper.callbackSuccessEncoded(callbackContext, payload);
+            }
+
+            Subscription[] current = getSubscriptions(event);
+            Subscription added = new Subscription(id, callbackContext);
+            int index = indexOf(current, id);
+            Subscription[] updated;
+            if (index >= 0) {
+                updated = current.clone();
+                updated[index] = added;
+            } else {
+                updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = added;
+            }
+            subscriptions.put(event, updated);
+        }
+    }
+
+    /**
+     * Removes the subscription with this id from every event and releases its JS callback. Returns false if there was
+     * no such subscription.
+     */
+    public boolean unregister(String id) {
+        boolean removed = false;
+        for (String event : subscriptions.keySet()) {
+            PendingEventBuffer buffer = getBuffer(event);
+            synchronized (buffer) {
+                Subscription[] current = getSubscriptions(event);
+                int index = indexOf(current, id);
+                if (index < 0) {
+                    continue;
+                }
+                Subscription[] updated = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, updated.length - index);
+                subscriptions.put(event, updated);
+                CallbackHelper.callbackRelease(current[index].callbackContext);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /** Whether JS has registered at least one callback for the event */
+    public boolean hasSubscribers(String event) {
+        return getSubscriptions(event).length > 0;
+    }
+
+    /**
+     * Sends the payload to every subscription of the event, or buffers it until JS registers one. Returns false if
+     * there was no subscription and the buffer dropped the event.
+     */
+    public boolean deliver(String event, JSONObject payload) {
+        // serialized once, however many subscriptions receive it
+        return deliverEncoded(event, payload.toString());
+    }
+
+    /** Like {@link #deliver(String, JSONObject)} for a payload that is already encoded JSON */
+    public boolean deliverEncoded(String event, String encodedPayload) {
+        if (send(getSubscriptions(event), encodedPayload)) {
+            return true;
+        }
+
+        PendingEventBuffer buffer = getBuffer(event);
+        synchronized (buffer) {
+            if (send(getSubscriptions(event), encodedPayload)) {
+                return true;
+            }
+            return buffer.add(encodedPayload);
+        }
+    }
+
+    /** Sends to current subscribers only; events without one are dropped rather than buffered, returning false */
+    public boolean deliverIfSubscribed(String event, String encodedPayload) {
+        return send(getSubscriptions(event), encodedPayload);
+    }
+
+    public void configureBuffers(int capacity, PendingEventBuffer.DropPolicy dropPolicy) {
+        bufferCapacity = capacity;
+        bufferDropPolicy = dropPolicy;
+        for (PendingEventBuffer buffer : buffers.values()) {
+            synchronized (buffer) {
+                buffer.configure(capacity, dropPolicy);
+            }
+        }
+    }
+
+    public JSONObject getBufferStats() throws JSONException {
+        JSONObject stats = new JSONObject();
+        stats.put("capacity", bufferCapacity);
+        stats.put("dropPolicy", bufferDropPolicy.toString());
+        JSONObject perEvent = new JSONObject();
+        for (Map.Entry<String, PendingEventBuffer> entry : buffers.entrySet()) {
+            PendingEventBuffer buffer = entry.getValue();
+            JSONObject bufferStats = new JSONObject();
+            synchronized (buffer) {
+                bufferStats.put("size", buffer.size());
+                bufferStats.put("dropped", buffer.getDroppedCount());
+            }
+            perEvent.put(entry.getKey(), bufferStats);
+        }
+        stats.put("buffers", perEvent);
+        return stats;
+    }
+
+    /** Forgets all callbacks, e.g. when the WebView navigates away. Buffered events are kept for the next page */
+    public void clear() {
+        subscriptions.clear();
+    }
+
+    private Subscription[] getSubscriptions(String event) {
+        Subscription[] current = subscriptions.get(event);
+        return current != null ? current : NO_SUBSCRIPTIONS;
+    }
+
+    private static boolean send(Subscription[] targets, String encodedPayload) {
+        for (Subscription subscription : targets) {
+            CallbackHelper.callbackSuccessEncoded(subscription.callbackContext, encodedPayload);
+        }
+        return targets.length > 0;
+    }
+
+    private static int indexOf(Subscription[] subscriptions, String id) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (id == null ? subscriptions[i].id == null : id.equals(subscriptions[i].id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private PendingEventBuffer getBuffer(String event) {
+        PendingEventBuffer buffer = buffers.get(event);
+        if (buffer == null) {
+            PendingEventBuffer created = new PendingEventBuffer(bufferCapacity, bufferDropPolicy);
+            buffer = buffers.putIfAbsent(event, created);
+            if (buffer == null) {
+                buffer = created;
+            }
+        }
+        return buffer;
+    }
+}
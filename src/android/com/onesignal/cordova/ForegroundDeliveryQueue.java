@@ -0,0 +1,330 @@
+package com.onesignal.cordova;
+
+import com.onesignal.notifications.INotification;
+import com.onesignal.notifications.INotificationWillDisplayEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ScheduledFuture;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Paces foreground will-display events to JS so a burst of notifications (e.g. a campaign landing dozens at once)
+ * doesn't flood the JS thread and push most of them past the SDK's display window.
+ *
+ * While enabled, at most {@code maxPerSecond} events are handed to the {@link Sink}; the rest wait, highest
+ * {@link INotification#getPriority()} first and in arrival order within a priority. A waiting event is replaced by a
+ * newer one with the same collapse key, like Android replaces a notification with the same collapse id. When the
+ * queue is full the lowest-priority event is dropped, and an event that has waited longer than the max wait is
+ * expired, both while there's still time for the SDK to show it: the overflow policy decides whether it is displayed
+ * without asking JS or discarded.
+ *
+ * Disabled (a rate of 0, the default), every event goes straight to the {@link Sink}.
+ */
+public class ForegroundDeliveryQueue {
+    public interface Sink {
+        /** Called outside the queue's lock, on the SDK's thread or the plugin scheduler's */
+        void deliver(INotificationWillDisplayEvent event, long arrivedAtMs);
+    }
+
+    /** What becomes of an event that is dropped or expires before JS sees it */
+    public enum OverflowPolicy {
+        DISPLAY,
+        DISCARD;
+
+        public static OverflowPolicy fromString(String value) {
+            return "discard".equalsIgnoreCase(value) ? DISCARD : DISPLAY;
+        }
+
+        @Override
+        public String toString() {
+            return this == DISCARD ? "discard" : "display";
+        }
+    }
+
+    /** Which notification field makes waiting events collapse into the newest one */
+    public enum CollapseKey {
+        NONE,
+        COLLAPSE_ID,
+        GROUP_KEY;
+
+        public static CollapseKey fromString(String value) {
+            if ("none".equalsIgnoreCase(value)) {
+                return NONE;
+            }
+            return "groupKey".equalsIgnoreCase(value) ? GROUP_KEY : COLLAPSE_ID;
+        }
+
+        @Override
+        public String toString() {
+            return this == NONE ? "none" : this == GROUP_KEY ? "groupKey" : "collapseId";
+        }
+
+        String of(INotification notification) {
+            if (this == COLLAPSE_ID) {
+                return notification.getCollapseId();
+            }
+            return this == GROUP_KEY ? notification.getGroupKey() : null;
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = 20;
+
+    /** Leaves a margin before the SDK stops waiting, see {@link WillDisplayEventStore#DEFAULT_TTL_MS} */
+    public static final long DEFAULT_MAX_WAIT_MS = 25_000;
+
+    private static class Item {
+        final INotificationWillDisplayEvent event;
+        final int priority;
+        final String collapseKey;
+        final long sequence;
+        final long arrivedAtMs;
+
+        Item(INotificationWillDisplayEvent event, int priority, String collapseKey, long sequence, long arrivedAtMs) {
+            this.event = event;
+            this.priority = priority;
+            this.collapseKey = collapseKey;
+            this.sequence = sequence;
+            this.arrivedAtMs = arrivedAtMs;
+        }
+
+        /** Whether this item should be delivered before {@code other} */
+        boolean before(Item other) {
+            return priority != other.priority ? priority > other.priority : sequence < other.sequence;
+        }
+    }
+
+    private final Sink sink;
+
+    private int maxPerSecond;
+    private int capacity = DEFAULT_CAPACITY;
+    private long maxWaitMs = DEFAULT_MAX_WAIT_MS;
+    private CollapseKey collapseBy = CollapseKey.COLLAPSE_ID;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DISPLAY;
+
+    private final PriorityQueue<Item> waiting = new PriorityQueue<>(16, (a, b) -> a == b ? 0 : a.before(b) ? -1 : 1);
+    private final Map<String, Item> byCollapseKey = new HashMap<>();
+
+    private long nextSequence;
+    private long nextDeliveryAtMs;
+    private ScheduledFuture<?> scheduledDelivery;
+
+    private long queuedCount;
+    private long deliveredCount;
+    private long collapsedCount;
+    private long droppedCount;
+    private long expiredCount;
+
+    public ForegroundDeliveryQueue(Sink sink) {
+        this.sink = sink;
+    }
+
+    /** A rate of 0 disables pacing and delivers anything waiting now */
+    public void configure(
+            int maxPerSecond, int capacity, long maxWaitMs, CollapseKey collapseBy, OverflowPolicy overflowPolicy) {
+        List<Item> released;
+        synchronized (this) {
+            this.maxPerSecond = Math.max(maxPerSecond, 0);
+            this.capacity = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+            this.maxWaitMs = maxWaitMs > 0 ? maxWaitMs : DEFAULT_MAX_WAIT_MS;
+            this.collapseBy = collapseBy;
+            this.overflowPolicy = overflowPolicy;
+            if (this.maxPerSecond > 0) {
+                return;
+            }
+            cancelScheduledDelivery();
+            released = new ArrayList<>(waiting.size());
+            while (!waiting.isEmpty()) {
+                released.add(waiting.poll());
+            }
+            byCollapseKey.clear();
+            deliveredCount += released.size();
+        }
+        for (Item item : released) {
+            sink.deliver(item.event, item.arrivedAtMs);
+        }
+    }
+
+    public synchronized int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public synchronized int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public synchronized CollapseKey getCollapseBy() {
+        return collapseBy;
+    }
+
+    public synchronized OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Takes an event whose default display has already been prevented. {@code arrivedAtMs} is when the SDK raised it;
+     * the max wait counts from there and it is passed on to the {@link Sink}.
+     */
+    public void offer(INotificationWillDisplayEvent event, long arrivedAtMs) {
+        boolean deliverNow = false;
+        INotificationWillDisplayEvent overflow = null;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (maxPerSecond > 0 && (!waiting.isEmpty() || now < nextDeliveryAtMs)) {
+                overflow = enqueue(event, arrivedAtMs);
+                scheduleDelivery(now);
+            } else {
+                // nothing is waiting and the rate allows it, so this one skips the trip through the scheduler
+                nextDeliveryAtMs = maxPerSecond > 0 ? now + intervalMs() : 0;
+                deliveredCount++;
+                deliverNow = true;
+            }
+        }
+        if (deliverNow) {
+            sink.deliver(event, arrivedAtMs);
+        } else if (overflow != null) {
+            release(overflow);
+        }
+    }
+
+    public synchronized int size() {
+        return waiting.size();
+    }
+
+    public synchronized JSONObject getStats() throws JSONException {
+        JSONObject stats = new JSONObject();
+        stats.put("enabled", maxPerSecond > 0);
+        stats.put("maxPerSecond", maxPerSecond);
+        stats.put("capacity", capacity);
+        stats.put("maxWaitMs", maxWaitMs);
+        stats.put("collapseBy", collapseBy.toString());
+        stats.put("overflow", overflowPolicy.toString());
+        stats.put("size", waiting.size());
+        stats.put("queued", queuedCount);
+        stats.put("delivered", deliveredCount);
+        stats.put("collapsed", collapsedCount);
+        stats.put("dropped", droppedCount);
+        stats.put("expired", expiredCount);
+        return stats;
+    }
+
+    /** Adds the event to the waiting ones; returns an event that had to make room for it, if any */
+    private INotificationWillDisplayEvent enqueue(INotificationWillDisplayEvent event, long arrivedAtMs) {
+        INotification notification = event.getNotification();
+        String collapseKey = collapseBy.of(notification);
+        Item item = new Item(event, notification.getPriority(), collapseKey, nextSequence++, arrivedAtMs);
+        queuedCount++;
+
+        if (collapseKey != null) {
+            Item replaced = byCollapseKey.remove(collapseKey);
+            if (replaced != null) {
+                // the newer notification supersedes the waiting one, which is never shown
+                waiting.remove(replaced);
+                collapsedCount++;
+            }
+        }
+
+        INotificationWillDisplayEvent overflow = null;
+        if (waiting.size() >= capacity) {
+            Item last = lastInLine();
+            droppedCount++;
+            if (!item.before(last)) {
+                return event;
+            }
+            remove(last);
+            overflow = last.event;
+        }
+
+        waiting.add(item);
+        if (collapseKey != null) {
+            byCollapseKey.put(collapseKey, item);
+        }
+        return overflow;
+    }
+
+    /** Runs on the scheduler: expires stale events, then delivers the next one in line */
+    private void deliverNext() {
+        List<INotificationWillDisplayEvent> expired = new ArrayList<>();
+        Item next;
+        synchronized (this) {
+            scheduledDelivery = null;
+            long now = System.currentTimeMillis();
+            for (Iterator<Item> it = waiting.iterator(); it.hasNext(); ) {
+                Item item = it.next();
+                if (now - item.arrivedAtMs >= maxWaitMs) {
+                    it.remove();
+                    forgetCollapseKey(item);
+                    expired.add(item.event);
+                }
+            }
+            expiredCount += expired.size();
+
+            next = waiting.poll();
+            if (next != null) {
+                forgetCollapseKey(next);
+                deliveredCount++;
+                nextDeliveryAtMs = now + intervalMs();
+                scheduleDelivery(now);
+            }
+        }
+        for (INotificationWillDisplayEvent event : expired) {
+            release(event);
+        }
+        if (next != null) {
+            sink.deliver(next.event, next.arrivedAtMs);
+        }
+    }
+
+    private void release(INotificationWillDisplayEvent event) {
+        if (getOverflowPolicy() == OverflowPolicy.DISPLAY) {
+            event.getNotification().display();
+        }
+    }
+
+    private void scheduleDelivery(long now) {
+        if (scheduledDelivery == null && !waiting.isEmpty()) {
+            scheduledDelivery = PluginScheduler.schedule(this::deliverNext, Math.max(nextDeliveryAtMs - now, 0));
+        }
+    }
+
+    private void cancelScheduledDelivery() {
+        if (scheduledDelivery != null) {
+            scheduledDelivery.cancel(false);
+            scheduledDelivery = null;
+        }
+    }
+
+    private long intervalMs() {
+        return Math.max(1000L / maxPerSecond, 1);
+    }
+
+    /** The waiting event that would be delivered last */
+    private Item lastInLine() {
+        Item last = null;
+        for (Item item : waiting) {
+            if (last == null || last.before(item)) {
+                last = item;
+            }
+        }
+        return last;
+    }
+
+    private void remove(Item item) {
+        waiting.remove(item);
+        forgetCollapseKey(item);
+    }
+
+    private void forgetCollapseKey(Item item) {
+        if (item.collapseKey != null) {
+            byCollapseKey.remove(item.collapseKey, item);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.onesignal.cordova;
+
+import com.onesignal.notifications.INotification;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Keeps recently encoded notification payloads so a notification shown in the foreground and then tapped is only
+ * encoded once: the will-display path stores the JSON text and the click path takes it back out.
+ *
+ * Entries are keyed by notification id and field mask, since JS can ask for different fields in each event, and are
+ * evicted least recently used first once the cache holds more than its maximum entries or characters, or when they
+ * are older than the max age. A payload is only ever reused for the notification it was encoded from, so a stale
+ * entry costs memory but never correctness.
+ */
+public class NotificationPayloadCache {
+    public static final int DEFAULT_MAX_ENTRIES = 32;
+    public static final int DEFAULT_MAX_CHARS = 256 * 1024;
+    public static final long DEFAULT_MAX_AGE_MS = 5 * 60_000;
+
+    private static class Entry {
+        final String payload;
+        final long createdAtMs;
+
+        Entry(String payload, long createdAtMs) {
+            this.payload = payload;
+            this.createdAtMs = createdAtMs;
+        }
+    }
+
+    private final int maxEntries;
+    private final int maxChars;
+    private final long maxAgeMs;
+
+    /** Access order, so the eldest entry is the least recently used one */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long chars;
+    private long hitCount;
+    private long missCount;
+    private long evictedCount;
+
+    public NotificationPayloadCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_CHARS, DEFAULT_MAX_AGE_MS);
+    }
+
+    public NotificationPayloadCache(int maxEntries, int maxChars, long maxAgeMs) {
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /** Encodes the notification with {@link PayloadEncoder} and keeps the result for a later {@link #take} */
+    public String encode(INotification notification, int fields) throws JSONException {
+        String payload = PayloadEncoder.encodeNotification(notification, fields);
+        String notificationId = notification.getNotificationId();
+        if (notificationId != null) {
+            put(key(notificationId, fields), payload);
+        }
+        return payload;
+    }
+
+    /**
+     * Returns the payload {@link #encode} produced for this notification and field mask and removes it, since a
+     * notification is only clicked once; null if there is none.
+     */
+    public String take(String notificationId, int fields) {
+        return notificationId == null ? null : remove(key(notificationId, fields));
+    }
+
+    public synchronized int size() {
+        trim(System.currentTimeMillis());
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        chars = 0;
+    }
+
+    public synchronized JSONObject getStats() throws JSONException {
+        trim(System.currentTimeMillis());
+        JSONObject stats = new JSONObject();
+        stats.put("size", entries.size());
+        stats.put("chars", chars);
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxChars", maxChars);
+        stats.put("maxAgeMs", maxAgeMs);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evicted", evictedCount);
+        return stats;
+    }
+
+    private synchronized void put(String key, String payload) {
+        if (payload.length() > maxChars) {
+            return;
+        }
+        Entry previous = entries.put(key, new Entry(payload, System.currentTimeMillis()));
+        if (previous != null) {
+            chars -= previous.payload.length();
+        }
+        chars += payload.length();
+        trim(System.currentTimeMillis());
+    }
+
+    private synchronized String remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        chars -= entry.payload.length();
+        if (System.currentTimeMillis() - entry.createdAtMs >= maxAgeMs) {
+            evictedCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.payload;
+    }
+
+    /** Drops entries past the max age, then least recently used ones until both limits hold */
+    private void trim(long now) {
+        // entries are only read by removing them, so the least recently used one is also the oldest
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry eldest = it.next();
+            if (now - eldest.createdAtMs < maxAgeMs && entries.size() <= maxEntries && chars <= maxChars) {
+                return;
+            }
+            it.remove();
+            chars -= eldest.payload.length();
+            evictedCount++;
+        }
+    }
+
+    private static String key(String notificationId, int fields) {
+        return notificationId + '#' + fields;
+    }
+}
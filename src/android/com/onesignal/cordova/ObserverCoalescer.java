@@ -0,0 +1,83 @@
+package com.onesignal.cordova;
+
+import java.util.concurrent.ScheduledFuture;
+import org.json.JSONObject;
+
+/**
+ * Collapses bursts of state changes from one observer into a single message.
+ *
+ * The first change in a burst opens a window; changes arriving inside it only replace the pending current state, and
+ * when the window closes one change is sent carrying the earliest previous state and the latest current state. A
+ * window of 0 (the default) sends every change immediately.
+ */
+public class ObserverCoalescer {
+    public interface Sink {
+        void send(JSONObject previous, JSONObject current);
+    }
+
+    private final Sink sink;
+    private volatile long windowMs;
+
+    // guarded by this
+    private JSONObject pendingPrevious;
+    private JSONObject pendingCurrent;
+    private ScheduledFuture<?> pendingFlush;
+
+    public ObserverCoalescer(Sink sink) {
+        this.sink = sink;
+    }
+
+    public void setWindowMs(long windowMs) {
+        this.windowMs = Math.max(windowMs, 0);
+        if (this.windowMs == 0) {
+            flush();
+        }
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public void offer(JSONObject previous, JSONObject current) {
+        long window = windowMs;
+        synchronized (this) {
+            if (pendingCurrent != null) {
+                pendingCurrent = current;
+                if (window > 0) {
+                    return;
+                }
+            } else if (window > 0) {
+                pendingPrevious = previous;
+                pendingCurrent = current;
+                pendingFlush = PluginScheduler.schedule(this::flush, window);
+                return;
+            }
+        }
+
+        if (!flush()) {
+            sink.send(previous, current);
+        }
+    }
+
+    /** Sends the pending change now, if any; returns false if nothing was pending */
+    private boolean flush() {
+        JSONObject previous;
+        JSONObject current;
+        synchronized (this) {
+            if (pendingCurrent == null) {
+                return false;
+            }
+            previous = pendingPrevious;
+            current = pendingCurrent;
+            pendingPrevious = null;
+            pendingCurrent = null;
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
+            }
+        }
+
+        sink.send(previous, current);
+        return true;
+    }
+}
@@ -4,10 +4,12 @@ import com.onesignal.Continue;
 import com.onesignal.OneSignal;
 import com.onesignal.debug.LogLevel;
 import com.onesignal.debug.internal.logging.Logging;
+import com.onesignal.user.IUserManager;
+import com.onesignal.user.subscriptions.IPushSubscription;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import org.apache.cordova.CallbackContext;
 import org.json.JSONArray;
@@ -49,7 +51,7 @@ public class OneSignalController {
 
     public static boolean setLanguage(JSONArray data) {
         try {
-            OneSignal.getUser().setLanguage(data.getString(0));
+            OneSignalSdk.getUser().setLanguage(data.getString(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -60,7 +62,13 @@ public class OneSignalController {
     public static boolean login(JSONArray data) {
         try {
             String externalId = data.getString(0);
+            // pending writes and events belong to the user they were made for
+            flushPendingWrites();
+            flushTrackEvents();
             OneSignal.login(externalId);
+            tagWrites.reset();
+            aliasWrites.reset();
+            tagMirror.reset();
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -69,34 +77,39 @@ public class OneSignalController {
     }
 
     public static boolean logout() {
+        flushPendingWrites();
+        flushTrackEvents();
         OneSignal.logout();
+        tagWrites.reset();
+        aliasWrites.reset();
+        tagMirror.reset();
         return true;
     }
 
     public static boolean optInPushSubscription() {
-        OneSignal.getUser().getPushSubscription().optIn();
+        OneSignalSdk.getUser().getPushSubscription().optIn();
         return true;
     }
 
     public static boolean optOutPushSubscription() {
-        OneSignal.getUser().getPushSubscription().optOut();
+        OneSignalSdk.getUser().getPushSubscription().optOut();
         return true;
     }
 
     public static boolean getPushSubscriptionId(CallbackContext callbackContext) {
-        String pushId = OneSignal.getUser().getPushSubscription().getId();
+        String pushId = OneSignalSdk.getUser().getPushSubscription().getId();
         CallbackHelper.callbackSuccessString(callbackContext, OneSignalUtils.getStringOrNull(pushId));
         return true;
     }
 
     public static boolean getPushSubscriptionToken(CallbackContext callbackContext) {
-        String token = OneSignal.getUser().getPushSubscription().getToken();
+        String token = OneSignalSdk.getUser().getPushSubscription().getToken();
         CallbackHelper.callbackSuccessString(callbackContext, OneSignalUtils.getStringOrNull(token));
         return true;
     }
 
     public static boolean getPushSubscriptionOptedIn(CallbackContext callbackContext) {
-        boolean optedIn = OneSignal.getUser().getPushSubscription().getOptedIn();
+        boolean optedIn = OneSignalSdk.getUser().getPushSubscription().getOptedIn();
         CallbackHelper.callbackSuccessBoolean(callbackContext, optedIn);
         return true;
     }
@@ -104,18 +117,46 @@ public class OneSignalController {
     /**
      * Aliases
      */
+    private static final WriteCombiningBuffer aliasWrites = new WriteCombiningBuffer(
+            (additions, removals) -> {
+                try {
+                    if (!additions.isEmpty()) {
+                        OneSignalSdk.getUser().addAliases(additions);
+                    }
+                    if (!removals.isEmpty()) {
+                        OneSignalSdk.getUser().removeAliases(removals);
+                    }
+                    return true;
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                    return false;
+                }
+            });
+
+    /** A flush interval of 0 sends every alias write immediately */
+    public static void configureAliasWriteCombining(long flushIntervalMs, int maxPendingKeys) {
+        aliasWrites.configure(flushIntervalMs, maxPendingKeys);
+    }
+
+    public static boolean setAliasWriteCombining(JSONArray data) {
+        try {
+            JSONObject config = data.getJSONObject(0);
+            configureAliasWriteCombining(
+                    config.optLong("flushIntervalMs", aliasWrites.getFlushIntervalMs()),
+                    config.optInt("maxPendingKeys", aliasWrites.getMaxPendingKeys()));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     public static boolean addAliases(JSONArray data) {
         try {
             JSONObject aliasObject = data.getJSONObject(0);
-            Map<String, String> aliasesToAdd = new HashMap<>();
-            Iterator<String> labels = aliasObject.keys();
+            Map<String, String> aliasesToAdd = OneSignalUtils.jsonObjectToStringMap(aliasObject);
 
-            while (labels.hasNext()) {
-                String label = labels.next();
-                aliasesToAdd.put(label, aliasObject.getString(label));
-            }
-
-            OneSignal.getUser().addAliases(aliasesToAdd);
+            aliasWrites.add(aliasesToAdd);
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -131,7 +172,7 @@ public class OneSignalController {
                 aliasesToRemove.add(data.get(i).toString());
             }
 
-            OneSignal.getUser().removeAliases(aliasesToRemove);
+            aliasWrites.remove(aliasesToRemove);
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -142,18 +183,59 @@ public class OneSignalController {
     /**
      * Tags
      */
+    private static final WriteCombiningBuffer tagWrites = new WriteCombiningBuffer(
+            (additions, removals) -> {
+                try {
+                    if (!additions.isEmpty()) {
+                        OneSignalSdk.getUser().addTags(additions);
+                    }
+                    if (!removals.isEmpty()) {
+                        OneSignalSdk.getUser().removeTags(removals);
+                    }
+                    return true;
+                } catch (Throwable t) {
+                    t.printStackTrace();
+                    return false;
+                }
+            });
+
+    private static final VersionedMirror tagMirror = new VersionedMirror();
+
+    /** How long versioned getTags trusts the mirror before reconciling it with the SDK's tags */
+    private static final long TAG_MIRROR_MAX_AGE_MS = 60_000;
+
+    /** A flush interval of 0 sends every tag write immediately */
+    public static void configureTagWriteCombining(long flushIntervalMs, int maxPendingKeys) {
+        tagWrites.configure(flushIntervalMs, maxPendingKeys);
+    }
+
+    public static boolean setTagWriteCombining(JSONArray data) {
+        try {
+            JSONObject config = data.getJSONObject(0);
+            configureTagWriteCombining(
+                    config.optLong("flushIntervalMs", tagWrites.getFlushIntervalMs()),
+                    config.optInt("maxPendingKeys", tagWrites.getMaxPendingKeys()));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /** Sends all combined writes still waiting for their flush interval */
+    public static boolean flushPendingWrites() {
+        tagWrites.flush();
+        aliasWrites.flush();
+        return true;
+    }
+
     public static boolean addTags(JSONArray data) {
         try {
             JSONObject tagsObject = data.getJSONObject(0);
-            Map<String, String> tagsToAdd = new HashMap<>();
-            Iterator<String> keys = tagsObject.keys();
+            Map<String, String> tagsToAdd = OneSignalUtils.jsonObjectToStringMap(tagsObject);
 
-            while (keys.hasNext()) {
-                String key = keys.next();
-                tagsToAdd.put(key, tagsObject.get(key).toString());
-            }
-
-            OneSignal.getUser().addTags(tagsToAdd);
+            tagWrites.add(tagsToAdd);
+            tagMirror.put(tagsToAdd);
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -167,7 +249,8 @@ public class OneSignalController {
             for (int i = 0; i < data.length(); i++) {
                 list.add(data.get(i).toString());
             }
-            OneSignal.getUser().removeTags(list);
+            tagWrites.remove(list);
+            tagMirror.remove(list);
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -175,21 +258,124 @@ public class OneSignalController {
         }
     }
 
-    public static boolean getTags(CallbackContext callbackContext) {
-        Map<String, String> tagsMap = OneSignal.getUser().getTags();
-        JSONObject tagsJson = new JSONObject(tagsMap);
+    /**
+     * With no arguments, sends the full tag map. With a version from a previous call, sends
+     * {@code {version, full, changed, removed}} holding only the tags changed since then, or
+     * {@code {version, full: true, values}} when that version is too old to diff against.
+     *
+     * A versioned call is answered from the tag mirror, which addTags and removeTags keep current, pending combined
+     * writes included. Only when the mirror needs reconciling (first use, after login or logout, a full snapshot, or
+     * every {@link #TAG_MIRROR_MAX_AGE_MS} to pick up tags changed outside the plugin) are pending writes flushed and
+     * the SDK's tags read.
+     */
+    public static boolean getTags(CallbackContext callbackContext, JSONArray data) {
+        if (data.length() > 0 && !data.isNull(0)) {
+            try {
+                long sinceVersion = data.getLong(0);
+                if (tagMirror.needsSync(sinceVersion, TAG_MIRROR_MAX_AGE_MS)) {
+                    tagWrites.flush();
+                    tagMirror.sync(OneSignalSdk.getUser().getTags());
+                }
+                CallbackHelper.callbackSuccess(callbackContext, tagMirror.changesSince(sinceVersion));
+                return true;
+            } catch (JSONException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+
+        tagWrites.flush();
+        JSONObject tagsJson = new JSONObject(OneSignalSdk.getUser().getTags());
         CallbackHelper.callbackSuccess(callbackContext, tagsJson);
         return true;
     }
 
+    /**
+     * State snapshot
+     */
+    private static final String[] SNAPSHOT_FIELDS = {
+        "onesignalId",
+        "externalId",
+        "pushSubscriptionId",
+        "pushSubscriptionToken",
+        "pushSubscriptionOptedIn",
+        "tags",
+        "permission",
+        "canRequestPermission",
+        "isPaused"
+    };
+
+    /**
+     * Collects the user, push subscription, permission and in-app messaging state the individual getters return into
+     * one JSON document. An optional array of field names restricts the snapshot to just those fields.
+     */
+    public static boolean getStateSnapshot(CallbackContext callbackContext, JSONArray data) {
+        try {
+            JSONArray fieldMask = data.length() > 0 && !data.isNull(0) ? data.getJSONArray(0) : null;
+            Collection<String> fields = new ArrayList<>();
+            if (fieldMask == null) {
+                fields.addAll(Arrays.asList(SNAPSHOT_FIELDS));
+            } else {
+                for (int i = 0; i < fieldMask.length(); i++) {
+                    fields.add(fieldMask.getString(i));
+                }
+            }
+
+            IUserManager user = OneSignalSdk.getUser();
+            IPushSubscription pushSubscription = user.getPushSubscription();
+            JSONObject snapshot = new JSONObject();
+
+            for (String field : fields) {
+                switch (field) {
+                    case "onesignalId":
+                        snapshot.put(field, OneSignalUtils.getStringOrJSONObjectNull(user.getOnesignalId()));
+                        break;
+                    case "externalId":
+                        snapshot.put(field, OneSignalUtils.getStringOrJSONObjectNull(user.getExternalId()));
+                        break;
+                    case "pushSubscriptionId":
+                        snapshot.put(field, OneSignalUtils.getStringOrJSONObjectNull(pushSubscription.getId()));
+                        break;
+                    case "pushSubscriptionToken":
+                        snapshot.put(field, OneSignalUtils.getStringOrJSONObjectNull(pushSubscription.getToken()));
+                        break;
+                    case "pushSubscriptionOptedIn":
+                        snapshot.put(field, pushSubscription.getOptedIn());
+                        break;
+                    case "tags":
+                        snapshot.put(field, new JSONObject(user.getTags()));
+                        break;
+                    case "permission":
+                        snapshot.put(field, OneSignalSdk.getNotifications().getPermission());
+                        break;
+                    case "canRequestPermission":
+                        snapshot.put(field, OneSignalSdk.getNotifications().getCanRequestPermission());
+                        break;
+                    case "isPaused":
+                        snapshot.put(field, OneSignalSdk.getInAppMessages().getPaused());
+                        break;
+                    default:
+                        Logging.warn("Unknown state snapshot field: " + field, null);
+                }
+            }
+
+            CallbackHelper.callbackSuccess(callbackContext, snapshot);
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+            return false;
+        }
+    }
+
     public static boolean getOnesignalId(CallbackContext callbackContext) {
-        String onesignalId = OneSignal.getUser().getOnesignalId();
+        String onesignalId = OneSignalSdk.getUser().getOnesignalId();
         CallbackHelper.callbackSuccessString(callbackContext, OneSignalUtils.getStringOrNull(onesignalId));
         return true;
     }
 
     public static boolean getExternalId(CallbackContext callbackContext) {
-        String externalId = OneSignal.getUser().getExternalId();
+        String externalId = OneSignalSdk.getUser().getExternalId();
         CallbackHelper.callbackSuccessString(callbackContext, OneSignalUtils.getStringOrNull(externalId));
         return true;
     }
@@ -199,7 +385,7 @@ public class OneSignalController {
      */
     public static boolean clearAllNotifications() {
         try {
-            OneSignal.getNotifications().clearAllNotifications();
+            OneSignalSdk.getNotifications().clearAllNotifications();
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -209,7 +395,7 @@ public class OneSignalController {
 
     public static boolean removeNotification(JSONArray data) {
         try {
-            OneSignal.getNotifications().removeNotification(data.getInt(0));
+            OneSignalSdk.getNotifications().removeNotification(data.getInt(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -219,7 +405,7 @@ public class OneSignalController {
 
     public static boolean removeGroupedNotifications(JSONArray data) {
         try {
-            OneSignal.getNotifications().removeGroupedNotifications(data.getString(0));
+            OneSignalSdk.getNotifications().removeGroupedNotifications(data.getString(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -234,7 +420,7 @@ public class OneSignalController {
 
     public static boolean requestPermission(CallbackContext callbackContext, JSONArray data) {
         // if permission already exists, return early as the method call will not resolve
-        if (OneSignal.getNotifications().getPermission()) {
+        if (OneSignalSdk.getNotifications().getPermission()) {
             CallbackHelper.callbackSuccessBoolean(callbackContext, true);
             return true;
         }
@@ -246,7 +432,7 @@ public class OneSignalController {
             e.printStackTrace();
         }
 
-        OneSignal.getNotifications().requestPermission(fallbackToSettings, Continue.with(r -> {
+        OneSignalSdk.getNotifications().requestPermission(fallbackToSettings, Continue.with(r -> {
             if (r.isSuccess()) {
                 CallbackHelper.callbackSuccessBoolean(callbackContext, r.getData());
             } else {
@@ -258,19 +444,19 @@ public class OneSignalController {
     }
 
     public static boolean getPermissionInternal(CallbackContext callbackContext) {
-        boolean granted = OneSignal.getNotifications().getPermission();
+        boolean granted = OneSignalSdk.getNotifications().getPermission();
         CallbackHelper.callbackSuccessBoolean(callbackContext, granted);
         return true;
     }
 
     public static boolean canRequestPermission(CallbackContext callbackContext) {
-        boolean canRequest = OneSignal.getNotifications().getCanRequestPermission();
+        boolean canRequest = OneSignalSdk.getNotifications().getCanRequestPermission();
         CallbackHelper.callbackSuccessBoolean(callbackContext, canRequest);
         return true;
     }
 
     public static boolean permissionNative(CallbackContext callbackContext) {
-        boolean granted = OneSignal.getNotifications().getPermission();
+        boolean granted = OneSignalSdk.getNotifications().getPermission();
         CallbackHelper.callbackSuccessInt(callbackContext, granted ? 2 : 1);
         return true;
     }
@@ -362,54 +548,94 @@ public class OneSignalController {
     }
 
     /** Custom Events */
-    public static boolean trackEvent(JSONArray data) {
-        try {
-            String eventName = data.getString(0);
-            Map<String, Object> properties = null;
+    private static volatile TrackEventQueue trackEvents;
 
-            if (data.length() > 1 && !data.isNull(1)) {
-                JSONObject propertiesObject = data.getJSONObject(1);
-                properties = jsonObjectToMap(propertiesObject);
+    private static volatile BoundedJsonConverter propertiesConverter = BoundedJsonConverter.DEFAULT;
+
+    /** Events are queued from here on, and sent once {@link #startTrackEventQueue()} is called */
+    public static synchronized void initTrackEventQueue(File directory, int capacity) {
+        if (trackEvents != null) {
+            // the plugin was created again in the same process; keep the queue and what it holds
+            trackEvents.setCapacity(capacity);
+            return;
+        }
+        TrackEventQueue queue = new TrackEventQueue(directory, (eventName, propertiesObject) -> {
+            Map<String, Object> properties = null;
+            if (propertiesObject != null) {
+                properties = propertiesConverter.toMap(propertiesObject);
             }
+            OneSignalSdk.getUser().trackEvent(eventName, properties);
+        });
+        queue.setCapacity(capacity);
+        trackEvents = queue;
+    }
 
-            OneSignal.getUser().trackEvent(eventName, properties);
-            return true;
-        } catch (Throwable t) {
-            t.printStackTrace();
-            return false;
+    public static void startTrackEventQueue() {
+        TrackEventQueue queue = trackEvents;
+        if (queue != null) {
+            queue.start();
         }
     }
 
-    /** Convert JSONObject to Map, recursively converting nested objects and arrays */
-    private static Map<String, Object> jsonObjectToMap(JSONObject json) throws JSONException {
-        Map<String, Object> map = new HashMap<>();
-        Iterator<String> keys = json.keys();
+    public static void persistTrackEvents() {
+        TrackEventQueue queue = trackEvents;
+        if (queue != null) {
+            queue.persist();
+        }
+    }
 
-        while (keys.hasNext()) {
-            String key = keys.next();
-            Object value = json.get(key);
-            map.put(key, convertJsonValue(value));
+    private static void flushTrackEvents() {
+        TrackEventQueue queue = trackEvents;
+        if (queue != null) {
+            queue.flush();
         }
+    }
 
-        return map;
+    /** Limits on trackEvent properties; 0 keeps a limit's default */
+    public static void configureTrackEventLimits(int maxDepth, int maxKeys, int maxStringLength) {
+        propertiesConverter = new BoundedJsonConverter(maxDepth, maxKeys, maxStringLength);
     }
 
-    /** Convert JSON value to native Java type */
-    private static Object convertJsonValue(Object value) throws JSONException {
-        if (value == JSONObject.NULL) {
-            return null;
-        } else if (value instanceof JSONObject) {
-            return jsonObjectToMap((JSONObject) value);
-        } else if (value instanceof JSONArray) {
-            JSONArray jsonArray = (JSONArray) value;
-            Collection<Object> list = new ArrayList<>();
-            for (int i = 0; i < jsonArray.length(); i++) {
-                list.add(convertJsonValue(jsonArray.get(i)));
+    public static boolean setTrackEventLimits(JSONArray data) {
+        try {
+            JSONObject config = data.getJSONObject(0);
+            BoundedJsonConverter current = propertiesConverter;
+            configureTrackEventLimits(
+                    config.optInt("maxDepth", current.getMaxDepth()),
+                    config.optInt("maxKeys", current.getMaxKeys()),
+                    config.optInt("maxStringLength", current.getMaxStringLength()));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public static boolean trackEvent(JSONArray data, CallbackContext callbackContext) {
+        try {
+            String eventName = data.getString(0);
+            JSONObject propertiesObject = null;
+
+            if (data.length() > 1 && !data.isNull(1)) {
+                propertiesObject = data.getJSONObject(1);
             }
-            return list;
-        } else {
-            // Primitive types (String, Integer, Double, Boolean, etc.)
-            return value;
+
+            TrackEventQueue queue = trackEvents;
+            if (queue != null) {
+                queue.accept(eventName, propertiesObject, callbackContext);
+                return true;
+            }
+
+            Map<String, Object> properties =
+                    propertiesObject != null ? propertiesConverter.toMap(propertiesObject) : null;
+            OneSignalSdk.getUser().trackEvent(eventName, properties);
+            return true;
+        } catch (BoundedJsonConverter.LimitExceededException e) {
+            CallbackHelper.callbackError(callbackContext, "Could not track event: " + e.getMessage());
+            return true;
+        } catch (Throwable t) {
+            t.printStackTrace();
+            return false;
         }
     }
 }
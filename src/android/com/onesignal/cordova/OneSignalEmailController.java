@@ -1,12 +1,11 @@
 package com.onesignal.cordova;
 
-import com.onesignal.OneSignal;
 import org.json.JSONArray;
 
 public class OneSignalEmailController {
     public static boolean addEmail(JSONArray data) {
         try {
-            OneSignal.getUser().addEmail(data.getString(0));
+            OneSignalSdk.getUser().addEmail(data.getString(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -16,7 +15,7 @@ public class OneSignalEmailController {
 
     public static boolean removeEmail(JSONArray data) {
         try {
-            OneSignal.getUser().removeEmail(data.getString(0));
+            OneSignalSdk.getUser().removeEmail(data.getString(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
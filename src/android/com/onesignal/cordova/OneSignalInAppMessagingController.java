@@ -1,9 +1,7 @@
 package com.onesignal.cordova;
 
-import com.onesignal.OneSignal;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import org.apache.cordova.CallbackContext;
@@ -12,19 +10,40 @@ import org.json.JSONException;
 import org.json.JSONObject;
 
 public class OneSignalInAppMessagingController {
+    /** Triggers set through the plugin, so ones JS sets again unchanged (e.g. on every screen) skip the SDK */
+    private static final TriggerMirror triggers = new TriggerMirror(new TriggerMirror.Sink() {
+        @Override
+        public void addTriggers(Map<String, String> triggers) {
+            OneSignalSdk.getInAppMessages().addTriggers(triggers);
+        }
+
+        @Override
+        public void removeTriggers(Collection<String> keys) {
+            OneSignalSdk.getInAppMessages().removeTriggers(keys);
+        }
+
+        @Override
+        public void clearTriggers() {
+            OneSignalSdk.getInAppMessages().clearTriggers();
+        }
+    });
 
     public static boolean addTriggers(JSONArray data) {
         try {
             JSONObject triggersObject = data.getJSONObject(0);
-            Map<String, String> triggers = new HashMap<>();
-            Iterator<String> keys = triggersObject.keys();
-
-            while (keys.hasNext()) {
-                String key = keys.next();
-                triggers.put(key, (String) triggersObject.get(key));
-            }
+            triggers.add(OneSignalUtils.jsonObjectToTriggerMap(triggersObject));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-            OneSignal.getInAppMessages().addTriggers(triggers);
+    /** Replaces every trigger with the given ones, sending the SDK only what differs from the current set */
+    public static boolean setTriggers(JSONArray data) {
+        try {
+            JSONObject triggersObject = data.getJSONObject(0);
+            triggers.replace(OneSignalUtils.jsonObjectToTriggerMap(triggersObject));
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -41,7 +60,7 @@ public class OneSignalInAppMessagingController {
                 triggerKeys.add(triggerKeysArray.getString(i));
             }
 
-            OneSignal.getInAppMessages().removeTriggers(triggerKeys);
+            triggers.remove(triggerKeys);
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -51,7 +70,7 @@ public class OneSignalInAppMessagingController {
 
     public static boolean clearTriggers() {
         try {
-            OneSignal.getInAppMessages().clearTriggers();
+            triggers.clear();
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -61,7 +80,7 @@ public class OneSignalInAppMessagingController {
 
     public static boolean setPaused(JSONArray data) {
         try {
-            OneSignal.getInAppMessages().setPaused(data.getBoolean(0));
+            OneSignalSdk.getInAppMessages().setPaused(data.getBoolean(0));
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -70,7 +89,7 @@ public class OneSignalInAppMessagingController {
     }
 
     public static boolean isPaused(CallbackContext callbackContext) {
-        boolean inAppMessagingPaused = OneSignal.getInAppMessages().getPaused();
+        boolean inAppMessagingPaused = OneSignalSdk.getInAppMessages().getPaused();
         CallbackHelper.callbackSuccessBoolean(callbackContext, inAppMessagingPaused);
         return true;
     }
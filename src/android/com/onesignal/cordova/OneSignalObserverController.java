@@ -1,6 +1,5 @@
 package com.onesignal.cordova;
 
-import com.onesignal.OneSignal;
 import com.onesignal.notifications.IPermissionObserver;
 import com.onesignal.user.state.IUserStateObserver;
 import com.onesignal.user.state.UserChangedState;
@@ -9,34 +8,60 @@ import com.onesignal.user.subscriptions.IPushSubscriptionObserver;
 import com.onesignal.user.subscriptions.PushSubscriptionChangedState;
 import com.onesignal.user.subscriptions.PushSubscriptionState;
 import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 public class OneSignalObserverController {
-    private static CallbackContext jsPermissionObserverCallBack;
-    private static CallbackContext jsSubscriptionObserverCallBack;
-    private static CallbackContext jsUserObserverCallBack;
+    private static final EventCallbackRegistry observerCallbacks = new EventCallbackRegistry();
+
+    private static final ObserverCoalescer pushSubscriptionChanges = new ObserverCoalescer((previous, current) -> {
+        try {
+            JSONObject hash = new JSONObject();
+            hash.put("current", current);
+            hash.put("previous", previous);
+
+            observerCallbacks.deliverIfSubscribed(EventCallbackRegistry.PUSH_SUBSCRIPTION_CHANGE, hash.toString());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    });
+
+    private static final ObserverCoalescer userStateChanges = new ObserverCoalescer((previous, current) -> {
+        try {
+            JSONObject hash = new JSONObject();
+            hash.put("current", current);
+
+            observerCallbacks.deliverIfSubscribed(EventCallbackRegistry.USER_STATE_CHANGE, hash.toString());
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    });
 
     private static IPermissionObserver permissionObserver;
     private static IPushSubscriptionObserver pushSubscriptionObserver;
     private static IUserStateObserver userStateObserver;
 
-    public static boolean addPermissionObserver(CallbackContext callbackContext) {
-        jsPermissionObserverCallBack = callbackContext;
+    public static boolean addPermissionObserver(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        observerCallbacks.register(EventCallbackRegistry.PERMISSION_CHANGE, subscriptionId, callbackContext);
         if (permissionObserver == null) {
             permissionObserver = new IPermissionObserver() {
                 @Override
                 public void onNotificationPermissionChange(boolean permission) {
-                    CallbackHelper.callbackSuccessBoolean(jsPermissionObserverCallBack, permission);
+                    // a JSON boolean, so each subscriber gets the same encoded message
+                    observerCallbacks.deliverIfSubscribed(
+                            EventCallbackRegistry.PERMISSION_CHANGE, Boolean.toString(permission));
                 }
             };
-            OneSignal.getNotifications().addPermissionObserver(permissionObserver);
+            OneSignalSdk.getNotifications().addPermissionObserver(permissionObserver);
         }
         return true;
     }
 
-    public static boolean addPushSubscriptionObserver(CallbackContext callbackContext) {
-        jsSubscriptionObserverCallBack = callbackContext;
+    public static boolean addPushSubscriptionObserver(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        observerCallbacks.register(EventCallbackRegistry.PUSH_SUBSCRIPTION_CHANGE, subscriptionId, callbackContext);
         if (pushSubscriptionObserver == null) {
             pushSubscriptionObserver = new IPushSubscriptionObserver() {
                 @Override
@@ -47,25 +72,19 @@ public class OneSignalObserverController {
                         return;
                     }
 
-                    try {
-                        JSONObject hash = new JSONObject();
-                        hash.put("current", createPushSubscriptionProperties(state.getCurrent()));
-                        hash.put("previous", createPushSubscriptionProperties(state.getPrevious()));
-
-                        CallbackHelper.callbackSuccess(jsSubscriptionObserverCallBack, hash);
-
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
+                    pushSubscriptionChanges.offer(
+                            createPushSubscriptionProperties(state.getPrevious()),
+                            createPushSubscriptionProperties(state.getCurrent()));
                 }
             };
-            OneSignal.getUser().getPushSubscription().addObserver(pushSubscriptionObserver);
+            OneSignalSdk.getUser().getPushSubscription().addObserver(pushSubscriptionObserver);
         }
         return true;
     }
 
-    public static boolean addUserStateObserver(CallbackContext callbackContext) {
-        jsUserObserverCallBack = callbackContext;
+    public static boolean addUserStateObserver(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        observerCallbacks.register(EventCallbackRegistry.USER_STATE_CHANGE, subscriptionId, callbackContext);
         if (userStateObserver == null) {
             userStateObserver = new IUserStateObserver() {
                 @Override
@@ -76,22 +95,41 @@ public class OneSignalObserverController {
                         return;
                     }
 
-                    try {
-                        JSONObject hash = new JSONObject();
-                        hash.put("current", createUserIds(current));
-
-                        CallbackHelper.callbackSuccess(jsUserObserverCallBack, hash);
-
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
+                    userStateChanges.offer(null, createUserIds(current));
                 }
             };
-            OneSignal.getUser().addObserver(userStateObserver);
+            OneSignalSdk.getUser().addObserver(userStateObserver);
         }
         return true;
     }
 
+    /** Removes an observer subscription added with an id; false if there was none */
+    public static boolean removeSubscription(String subscriptionId) {
+        return observerCallbacks.unregister(subscriptionId);
+    }
+
+    /**
+     * Sets how long push subscription and user state changes are held so a burst (login, logout, token refresh) reaches
+     * JS as one change with the earliest previous and the latest current state. 0 sends every change immediately.
+     */
+    public static void setCoalescingWindows(long pushSubscriptionMs, long userStateMs) {
+        pushSubscriptionChanges.setWindowMs(pushSubscriptionMs);
+        userStateChanges.setWindowMs(userStateMs);
+    }
+
+    public static boolean setObserverCoalescing(JSONArray data) {
+        try {
+            JSONObject config = data.getJSONObject(0);
+            setCoalescingWindows(
+                    config.optLong("pushSubscriptionMs", pushSubscriptionChanges.getWindowMs()),
+                    config.optLong("userStateMs", userStateChanges.getWindowMs()));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     private static JSONObject createUserIds(UserState user) {
         JSONObject userIds = new JSONObject();
         try {
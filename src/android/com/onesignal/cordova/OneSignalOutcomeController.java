@@ -1,15 +1,49 @@
 package com.onesignal.cordova;
 
-import com.onesignal.OneSignal;
 import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
 
 public class OneSignalOutcomeController {
+    private static final OutcomeAggregator outcomes = new OutcomeAggregator(new OutcomeAggregator.Sink() {
+        @Override
+        public boolean addOutcome(String name) {
+            try {
+                OneSignalSdk.getSession().addOutcome(name);
+                return true;
+            } catch (Throwable t) {
+                t.printStackTrace();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean addOutcomeWithValue(String name, float value) {
+            try {
+                OneSignalSdk.getSession().addOutcomeWithValue(name, value);
+                return true;
+            } catch (Throwable t) {
+                t.printStackTrace();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean addUniqueOutcome(String name) {
+            try {
+                OneSignalSdk.getSession().addUniqueOutcome(name);
+                return true;
+            } catch (Throwable t) {
+                t.printStackTrace();
+                return false;
+            }
+        }
+    });
 
     public static boolean addUniqueOutcome(JSONArray data) {
         try {
             final String name = data.getString(0);
-            OneSignal.getSession().addUniqueOutcome(name);
+            outcomes.addUniqueOutcome(name);
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -20,7 +54,7 @@ public class OneSignalOutcomeController {
     public static boolean addOutcome(JSONArray data) {
         try {
             final String name = data.getString(0);
-            OneSignal.getSession().addOutcome(name);
+            outcomes.addOutcome(name);
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -32,11 +66,50 @@ public class OneSignalOutcomeController {
         try {
             final String name = data.getString(0);
             final float value = Double.valueOf(data.optDouble(1)).floatValue();
-            OneSignal.getSession().addOutcomeWithValue(name, value);
+            outcomes.addOutcomeWithValue(name, value);
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
             return false;
         }
     }
+
+    /** A flush interval of 0 sends every outcome immediately */
+    public static void configureAggregation(long flushIntervalMs, boolean flushOnBackground) {
+        outcomes.configure(flushIntervalMs, flushOnBackground);
+    }
+
+    public static boolean setOutcomeAggregation(JSONArray data) {
+        try {
+            JSONObject config = data.getJSONObject(0);
+            configureAggregation(
+                    config.optLong("flushIntervalMs", outcomes.getFlushIntervalMs()),
+                    config.optBoolean("flushOnBackground", outcomes.getFlushOnBackground()));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public static boolean flushOutcomes() {
+        try {
+            outcomes.flush();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+        return true;
+    }
+
+    public static void onBackground() {
+        try {
+            outcomes.onBackground();
+        } catch (Throwable t) {
+            t.printStackTrace();
+        }
+    }
+
+    public static void onForeground() {
+        outcomes.onForeground();
+    }
 }
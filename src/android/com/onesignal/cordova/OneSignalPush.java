@@ -29,22 +29,18 @@ package com.onesignal.cordova;
 import com.onesignal.OneSignal;
 import com.onesignal.common.OneSignalWrapper;
 import com.onesignal.debug.internal.logging.Logging;
-import com.onesignal.inAppMessages.IInAppMessage;
 import com.onesignal.inAppMessages.IInAppMessageClickEvent;
 import com.onesignal.inAppMessages.IInAppMessageClickListener;
-import com.onesignal.inAppMessages.IInAppMessageClickResult;
 import com.onesignal.inAppMessages.IInAppMessageDidDismissEvent;
 import com.onesignal.inAppMessages.IInAppMessageDidDisplayEvent;
 import com.onesignal.inAppMessages.IInAppMessageLifecycleListener;
 import com.onesignal.inAppMessages.IInAppMessageWillDismissEvent;
 import com.onesignal.inAppMessages.IInAppMessageWillDisplayEvent;
-import com.onesignal.notifications.INotification;
+import com.onesignal.notifications.IDisplayableNotification;
 import com.onesignal.notifications.INotificationClickEvent;
 import com.onesignal.notifications.INotificationClickListener;
-import com.onesignal.notifications.INotificationClickResult;
 import com.onesignal.notifications.INotificationLifecycleListener;
 import com.onesignal.notifications.INotificationWillDisplayEvent;
-import java.util.HashMap;
 import org.apache.cordova.CallbackContext;
 import org.apache.cordova.CordovaPlugin;
 import org.json.JSONArray;
@@ -63,6 +59,11 @@ public class OneSignalPush extends CordovaPlugin
     private static final String DISPLAY_NOTIFICATION = "displayNotification";
     private static final String PREVENT_DEFAULT = "preventDefault";
     private static final String ADD_NOTIFICATION_CLICK_LISTENER = "addNotificationClickListener";
+    private static final String SET_NOTIFICATION_FIELDS = "setNotificationFields";
+    private static final String SET_FOREGROUND_DELIVERY = "setForegroundDelivery";
+    private static final String GET_FOREGROUND_DELIVERY_STATS = "getForegroundDeliveryStats";
+    private static final String SET_WILL_DISPLAY_DEADLINE = "setWillDisplayDeadline";
+    private static final String REMOVE_EVENT_SUBSCRIPTION = "removeEventSubscription";
 
     private static final String SET_IN_APP_MESSAGE_CLICK_HANDLER = "setInAppMessageClickHandler";
     private static final String SET_ON_WILL_DISPLAY_IN_APP_MESSAGE_HANDLER = "setOnWillDisplayInAppMessageHandler";
@@ -71,6 +72,7 @@ public class OneSignalPush extends CordovaPlugin
     private static final String SET_ON_DID_DISMISS_IN_APP_MESSAGE_HANDLER = "setOnDidDismissInAppMessageHandler";
 
     private static final String INIT = "init";
+    private static final String GET_INIT_TIMINGS = "getInitTimings";
 
     private static final String SET_LANGUAGE = "setLanguage";
 
@@ -80,6 +82,7 @@ public class OneSignalPush extends CordovaPlugin
     private static final String ADD_PERMISSION_OBSERVER = "addPermissionObserver";
     private static final String ADD_PUSH_SUBSCRIPTION_OBSERVER = "addPushSubscriptionObserver";
     private static final String ADD_USER_STATE_OBSERVER = "addUserStateObserver";
+    private static final String SET_OBSERVER_COALESCING = "setObserverCoalescing";
 
     private static final String GET_ONESIGNAL_ID = "getOnesignalId";
     private static final String GET_EXTERNAL_ID = "getExternalId";
@@ -96,6 +99,11 @@ public class OneSignalPush extends CordovaPlugin
     private static final String REMOVE_TAGS = "removeTags";
     private static final String ADD_TAGS = "addTags";
     private static final String GET_TAGS = "getTags";
+    private static final String SET_TAG_WRITE_COMBINING = "setTagWriteCombining";
+    private static final String SET_ALIAS_WRITE_COMBINING = "setAliasWriteCombining";
+    private static final String FLUSH_PENDING_WRITES = "flushPendingWrites";
+
+    private static final String GET_STATE_SNAPSHOT = "getStateSnapshot";
 
     private static final String REGISTER_FOR_PROVISIONAL_AUTHORIZATION = "registerForProvisionalAuthorization";
     private static final String REQUEST_PERMISSION = "requestPermission";
@@ -124,6 +132,7 @@ public class OneSignalPush extends CordovaPlugin
     private static final String SET_PRIVACY_CONSENT_GIVEN = "setPrivacyConsentGiven";
 
     private static final String ADD_TRIGGERS = "addTriggers";
+    private static final String SET_TRIGGERS = "setTriggers";
     private static final String REMOVE_TRIGGERS = "removeTriggers";
     private static final String CLEAR_TRIGGERS = "clearTriggers";
     private static final String SET_PAUSED = "setPaused";
@@ -132,6 +141,7 @@ public class OneSignalPush extends CordovaPlugin
     private static final String ADD_OUTCOME = "addOutcome";
     private static final String ADD_UNIQUE_OUTCOME = "addUniqueOutcome";
     private static final String ADD_OUTCOME_WITH_VALUE = "addOutcomeWithValue";
+    private static final String SET_OUTCOME_AGGREGATION = "setOutcomeAggregation";
 
     private static final String ENTER_LIVE_ACTIVITY = "enterLiveActivity";
     private static final String EXIT_LIVE_ACTIVITY = "exitLiveActivity";
@@ -140,60 +150,173 @@ public class OneSignalPush extends CordovaPlugin
     private static final String SETUP_DEFAULT_ACTIVITY = "setupDefaultLiveActivity";
     private static final String START_DEFAULT_LIVE_ACTIVITY = "startDefaultLiveActivity";
     private static final String TRACK_EVENT = "trackEvent";
+    private static final String SET_TRACK_EVENT_LIMITS = "setTrackEventLimits";
+
+    private static final String GET_WILL_DISPLAY_EVENT_STORE_STATS = "getWillDisplayEventStoreStats";
+    private static final String GET_NOTIFICATION_PAYLOAD_CACHE_STATS = "getNotificationPayloadCacheStats";
+
+    private static final String EXECUTE_BATCH = "executeBatch";
+
+    private static final String SET_EVENT_BUFFER_CONFIG = "setEventBufferConfig";
+    private static final String GET_EVENT_BUFFER_STATS = "getEventBufferStats";
+
+    private static final String GET_BRIDGE_METRICS = "getBridgeMetrics";
+
+    private static final String BRIDGE_METRICS_PREFERENCE = "OneSignalBridgeMetrics";
+
+    private static final String EVENT_BUFFER_CAPACITY_PREFERENCE = "OneSignalEventBufferCapacity";
+    private static final String EVENT_BUFFER_DROP_POLICY_PREFERENCE = "OneSignalEventBufferDropPolicy";
+    private static final String PUSH_SUBSCRIPTION_COALESCE_PREFERENCE = "OneSignalPushSubscriptionCoalesceMs";
+    private static final String USER_STATE_COALESCE_PREFERENCE = "OneSignalUserStateCoalesceMs";
+    private static final String TAG_FLUSH_INTERVAL_PREFERENCE = "OneSignalTagFlushIntervalMs";
+    private static final String TAG_MAX_PENDING_PREFERENCE = "OneSignalTagMaxPending";
+    private static final String ALIAS_FLUSH_INTERVAL_PREFERENCE = "OneSignalAliasFlushIntervalMs";
+    private static final String ALIAS_MAX_PENDING_PREFERENCE = "OneSignalAliasMaxPending";
+    private static final String OUTCOME_FLUSH_INTERVAL_PREFERENCE = "OneSignalOutcomeFlushIntervalMs";
+    private static final String OUTCOME_FLUSH_ON_BACKGROUND_PREFERENCE = "OneSignalOutcomeFlushOnBackground";
+    private static final String TRACK_EVENT_QUEUE_CAPACITY_PREFERENCE = "OneSignalTrackEventQueueCapacity";
+    private static final String TRACK_EVENT_MAX_DEPTH_PREFERENCE = "OneSignalTrackEventMaxDepth";
+    private static final String TRACK_EVENT_MAX_KEYS_PREFERENCE = "OneSignalTrackEventMaxKeys";
+    private static final String TRACK_EVENT_MAX_STRING_LENGTH_PREFERENCE = "OneSignalTrackEventMaxStringLength";
+    private static final String FOREGROUND_MAX_PER_SECOND_PREFERENCE = "OneSignalForegroundMaxPerSecond";
+    private static final String FOREGROUND_QUEUE_CAPACITY_PREFERENCE = "OneSignalForegroundQueueCapacity";
+    private static final String FOREGROUND_MAX_WAIT_PREFERENCE = "OneSignalForegroundMaxWaitMs";
+    private static final String FOREGROUND_COLLAPSE_BY_PREFERENCE = "OneSignalForegroundCollapseBy";
+    private static final String FOREGROUND_OVERFLOW_PREFERENCE = "OneSignalForegroundOverflow";
+    private static final String WILL_DISPLAY_DEADLINE_PREFERENCE = "OneSignalWillDisplayDeadlineMs";
+    private static final String WILL_DISPLAY_DEADLINE_ACTION_PREFERENCE = "OneSignalWillDisplayDeadlineAction";
+
+    private static final WillDisplayEventStore notificationWillDisplayStore = new WillDisplayEventStore();
+
+    /** Will-display payloads kept for when the same notification is clicked */
+    private static final NotificationPayloadCache notificationPayloads = new NotificationPayloadCache();
 
-    private static final HashMap<String, INotificationWillDisplayEvent> notificationWillDisplayCache = new HashMap<>();
-    private static final HashMap<String, INotificationWillDisplayEvent> preventDefaultCache = new HashMap<>();
+    private static final EventCallbackRegistry eventCallbacks = new EventCallbackRegistry();
 
-    private static CallbackContext jsInAppMessageWillDisplayCallback;
-    private static CallbackContext jsInAppMessageDidDisplayCallBack;
-    private static CallbackContext jsInAppMessageWillDismissCallback;
-    private static CallbackContext jsInAppMessageDidDismissCallBack;
-    private static CallbackContext jsInAppMessageClickedCallback;
-    private static CallbackContext jsNotificationInForegroundCallBack;
-    private static CallbackContext jsNotificationClickedCallback;
+    private static final ForegroundDeliveryQueue foregroundDelivery =
+            new ForegroundDeliveryQueue(OneSignalPush::deliverWillDisplay);
 
-    private static boolean initDone;
+    /** Notification fields JS asked for in will-display and click events; all fields until JS says otherwise */
+    private static volatile int willDisplayNotificationFields = OneSignalSerializer.ALL_NOTIFICATION_FIELDS;
+
+    private static volatile int clickNotificationFields = OneSignalSerializer.ALL_NOTIFICATION_FIELDS;
+
+    /** Set once the SDK has initialized successfully; a failed init leaves it unset so init can be retried */
+    private static volatile boolean initDone;
+    private static volatile boolean initPending;
+
+    private static final StartupTimings startupTimings = new StartupTimings();
+
+    private final ActionRegistry actions = new ActionRegistry();
 
     /**
      * N O T I F I C A T I O N    L I F E C Y C L E
      */
-    public boolean addForegroundLifecycleListener(CallbackContext callbackContext) {
-        jsNotificationInForegroundCallBack = callbackContext;
+    public boolean addForegroundLifecycleListener(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 1);
+        // the field mask is shared by every subscription, so only the default one sets it
+        if (subscriptionId == null) {
+            try {
+                willDisplayNotificationFields = OneSignalSerializer.notificationFieldMask(data.optJSONArray(0));
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+        }
+        eventCallbacks.register(EventCallbackRegistry.NOTIFICATION_WILL_DISPLAY, subscriptionId, callbackContext);
         return true;
     }
 
     @Override
     public void onWillDisplay(INotificationWillDisplayEvent event) {
-        if (jsNotificationInForegroundCallBack != null) {
-            try {
-                INotification notification = event.getNotification();
-                notificationWillDisplayCache.put(
-                        notification.getNotificationId(), (INotificationWillDisplayEvent) event);
+        if (!eventCallbacks.hasSubscribers(EventCallbackRegistry.NOTIFICATION_WILL_DISPLAY)) {
+            return;
+        }
+        // the SDK's display window runs from now, however long the event then waits in the foreground queue
+        long arrivedAtMs = System.currentTimeMillis();
+        // decided now, while the SDK waits; JS may be told later if the foreground queue is pacing events
+        event.preventDefault();
+        foregroundDelivery.offer(event, arrivedAtMs);
+    }
 
-                event.preventDefault();
+    private static void deliverWillDisplay(INotificationWillDisplayEvent event, long arrivedAtMs) {
+        long start = System.nanoTime();
+        boolean failed = false;
+        IDisplayableNotification notification = event.getNotification();
+        try {
+            notificationWillDisplayStore.put(notification.getNotificationId(), event, arrivedAtMs);
 
-                JSONObject foregroundData = serializeNotification(notification);
-                CallbackHelper.callbackSuccess(jsNotificationInForegroundCallBack, foregroundData);
-            } catch (JSONException e) {
-                e.printStackTrace();
+            String foregroundData = notificationPayloads.encode(notification, willDisplayNotificationFields);
+            if (!eventCallbacks.deliverIfSubscribed(EventCallbackRegistry.NOTIFICATION_WILL_DISPLAY, foregroundData)) {
+                // the listener went away while the event waited, so nobody will decide for it
+                notificationWillDisplayStore.cancel(notification.getNotificationId());
+                notification.display();
             }
+        } catch (JSONException e) {
+            failed = true;
+            e.printStackTrace();
+        } finally {
+            BridgeMetrics.recordEvent(
+                    EventCallbackRegistry.NOTIFICATION_WILL_DISPLAY, System.nanoTime() - start, failed);
+        }
+    }
+
+    /** Sets how foreground will-display events are paced to JS; omitted options keep their current value */
+    private static boolean setForegroundDelivery(JSONArray data) {
+        try {
+            JSONObject config = data.getJSONObject(0);
+            foregroundDelivery.configure(
+                    config.optInt("maxPerSecond", foregroundDelivery.getMaxPerSecond()),
+                    config.optInt("capacity", foregroundDelivery.getCapacity()),
+                    config.optLong("maxWaitMs", foregroundDelivery.getMaxWaitMs()),
+                    ForegroundDeliveryQueue.CollapseKey.fromString(
+                            config.optString("collapseBy", foregroundDelivery.getCollapseBy().toString())),
+                    ForegroundDeliveryQueue.OverflowPolicy.fromString(
+                            config.optString("overflow", foregroundDelivery.getOverflowPolicy().toString())));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
         }
     }
 
+    /** Sets when and how will-display events JS hasn't answered are resolved natively; omitted options are kept */
+    private static boolean setWillDisplayDeadline(JSONArray data) {
+        try {
+            JSONObject config = data.getJSONObject(0);
+            String defaultAction = notificationWillDisplayStore.getDisplayOnDeadline() ? "display" : "discard";
+            notificationWillDisplayStore.setDecisionDeadline(
+                    config.optLong("deadlineMs", notificationWillDisplayStore.getDecisionDeadlineMs()),
+                    !"discard".equals(config.optString("action", defaultAction)));
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private boolean getForegroundDeliveryStats(CallbackContext callbackContext) {
+        try {
+            CallbackHelper.callbackSuccess(callbackContext, foregroundDelivery.getStats());
+        } catch (JSONException e) {
+            e.printStackTrace();
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+        }
+        return true;
+    }
+
     private boolean proceedWithWillDisplay(JSONArray data) {
         try {
             String notificationId = data.getString(0);
-            INotificationWillDisplayEvent event = notificationWillDisplayCache.get(notificationId);
+            INotificationWillDisplayEvent event = notificationWillDisplayStore.get(notificationId);
             if (event == null) {
                 Logging.error(
                         "Could not find onWillDisplayNotification event for notification with id: " + notificationId,
                         null);
                 return true;
             }
-            if (this.preventDefaultCache.containsKey(notificationId)) {
-                return true;
+            if (notificationWillDisplayStore.markProceeded(notificationId)) {
+                event.getNotification().display();
             }
-            event.getNotification().display();
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -204,7 +327,7 @@ public class OneSignalPush extends CordovaPlugin
     private boolean displayNotification(JSONArray data) {
         try {
             String notificationId = data.getString(0);
-            INotificationWillDisplayEvent event = notificationWillDisplayCache.get(notificationId);
+            INotificationWillDisplayEvent event = notificationWillDisplayStore.remove(notificationId);
             if (event == null) {
                 Logging.error(
                         "Could not find onWillDisplayNotification event for notification with id: " + notificationId,
@@ -224,7 +347,7 @@ public class OneSignalPush extends CordovaPlugin
             String notificationId = data.getString(0);
             boolean shouldDiscard = data.getBoolean(1);
 
-            INotificationWillDisplayEvent event = notificationWillDisplayCache.get(notificationId);
+            INotificationWillDisplayEvent event = notificationWillDisplayStore.get(notificationId);
             if (event == null) {
                 Logging.error(
                         "Could not find onWillDisplayNotification event for notification with id: " + notificationId,
@@ -232,7 +355,7 @@ public class OneSignalPush extends CordovaPlugin
                 return true;
             }
             event.preventDefault(shouldDiscard);
-            this.preventDefaultCache.put(notificationId, event);
+            notificationWillDisplayStore.markPrevented(notificationId, shouldDiscard);
             return true;
         } catch (JSONException e) {
             e.printStackTrace();
@@ -240,47 +363,114 @@ public class OneSignalPush extends CordovaPlugin
         return true;
     }
 
+    private boolean getWillDisplayEventStoreStats(CallbackContext callbackContext) {
+        try {
+            CallbackHelper.callbackSuccess(callbackContext, notificationWillDisplayStore.getStats());
+        } catch (JSONException e) {
+            e.printStackTrace();
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+        }
+        return true;
+    }
+
+    private boolean getNotificationPayloadCacheStats(CallbackContext callbackContext) {
+        try {
+            CallbackHelper.callbackSuccess(callbackContext, notificationPayloads.getStats());
+        } catch (JSONException e) {
+            e.printStackTrace();
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+        }
+        return true;
+    }
+
     /**
      * N O T I F I C A T I O N    C L I C K    L I S T E N E R
      */
-    private boolean hasAddedNotificationClickListener = false;
-
-    public boolean addNotificationClickListener(CallbackContext callbackContext) {
-        jsNotificationClickedCallback = callbackContext;
-        if (!this.hasAddedNotificationClickListener) {
-            OneSignal.getNotifications().addClickListener(this);
-            hasAddedNotificationClickListener = true;
+    public boolean addNotificationClickListener(CallbackContext callbackContext, JSONArray data) {
+        // the SDK click listener is added in init, so clicks that cold-start the app are buffered until now
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 1);
+        // the field mask is shared by every subscription, so only the default one sets it
+        if (subscriptionId == null) {
+            try {
+                clickNotificationFields = OneSignalSerializer.notificationFieldMask(data.optJSONArray(0));
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
         }
+        eventCallbacks.register(EventCallbackRegistry.NOTIFICATION_CLICK, subscriptionId, callbackContext);
         return true;
     }
 
+    /** Removes a listener or observer subscription JS added with an id, and releases its callback */
+    private boolean removeEventSubscription(JSONArray data) {
+        try {
+            String subscriptionId = data.getString(0);
+            // the id is unique across events, so it is looked up in both registries
+            boolean removed = eventCallbacks.unregister(subscriptionId);
+            removed |= OneSignalObserverController.removeSubscription(subscriptionId);
+            if (!removed) {
+                Logging.debug("No event subscription with id: " + subscriptionId, null);
+            }
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /** Sets the notification fields sent with both will-display and click events; null or empty restores all fields */
+    private boolean setNotificationFields(JSONArray data) {
+        try {
+            int fields = OneSignalSerializer.notificationFieldMask(data.optJSONArray(0));
+            willDisplayNotificationFields = fields;
+            clickNotificationFields = fields;
+            return true;
+        } catch (JSONException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     @Override
     public void onClick(INotificationClickEvent event) {
+        long start = System.nanoTime();
+        boolean failed = false;
         try {
-            if (jsNotificationClickedCallback != null) {
-                CallbackHelper.callbackSuccess(jsNotificationClickedCallback, serializeNotificationClickEvent(event));
-            }
+            int fields = clickNotificationFields;
+            String encodedNotification = notificationPayloads.take(event.getNotification().getNotificationId(), fields);
+            String clickData = encodedNotification != null
+                    ? PayloadEncoder.encodeNotificationClickEvent(event, encodedNotification)
+                    : PayloadEncoder.encodeNotificationClickEvent(event, fields);
+            eventCallbacks.deliverEncoded(EventCallbackRegistry.NOTIFICATION_CLICK, clickData);
         } catch (JSONException e) {
+            failed = true;
             e.printStackTrace();
+        } finally {
+            BridgeMetrics.recordEvent(EventCallbackRegistry.NOTIFICATION_CLICK, System.nanoTime() - start, failed);
         }
     }
 
     /**
      * I N    A P P    M E S S A G E    C L I C K    L I S T E N E R
      */
-    public boolean setInAppMessageClickHandler(CallbackContext callbackContext) {
-        jsInAppMessageClickedCallback = callbackContext;
+    public boolean setInAppMessageClickHandler(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        eventCallbacks.register(EventCallbackRegistry.IN_APP_MESSAGE_CLICK, subscriptionId, callbackContext);
         return true;
     }
 
     @Override
     public void onClick(IInAppMessageClickEvent event) {
+        long start = System.nanoTime();
+        boolean failed = false;
         try {
-            if (jsInAppMessageClickedCallback != null) {
-                CallbackHelper.callbackSuccess(jsInAppMessageClickedCallback, serializeInAppMessageClickEvent(event));
-            }
+            eventCallbacks.deliverEncoded(
+                    EventCallbackRegistry.IN_APP_MESSAGE_CLICK, PayloadEncoder.encodeInAppMessageClickEvent(event));
         } catch (JSONException e) {
+            failed = true;
             e.printStackTrace();
+        } finally {
+            BridgeMetrics.recordEvent(EventCallbackRegistry.IN_APP_MESSAGE_CLICK, System.nanoTime() - start, failed);
         }
     }
 
@@ -289,432 +479,659 @@ public class OneSignalPush extends CordovaPlugin
      */
     @Override
     public void onWillDisplay(IInAppMessageWillDisplayEvent event) {
-        if (jsInAppMessageWillDisplayCallback != null) {
-            try {
-                JSONObject onWillDisplayResult = new JSONObject();
-                onWillDisplayResult.put("message", serializeInAppMessage(event.getMessage()));
-                CallbackHelper.callbackSuccess(jsInAppMessageWillDisplayCallback, onWillDisplayResult);
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            JSONObject onWillDisplayResult = new JSONObject();
+            onWillDisplayResult.put("message", OneSignalSerializer.serializeInAppMessage(event.getMessage()));
+            eventCallbacks.deliver(EventCallbackRegistry.IN_APP_MESSAGE_WILL_DISPLAY, onWillDisplayResult);
+        } catch (JSONException e) {
+            failed = true;
+            e.printStackTrace();
+        } finally {
+            BridgeMetrics.recordEvent(
+                    EventCallbackRegistry.IN_APP_MESSAGE_WILL_DISPLAY, System.nanoTime() - start, failed);
         }
     }
 
     @Override
     public void onDidDisplay(IInAppMessageDidDisplayEvent event) {
-        if (jsInAppMessageDidDisplayCallBack != null) {
-            try {
-                JSONObject onDidDisplayResult = new JSONObject();
-                onDidDisplayResult.put("message", serializeInAppMessage(event.getMessage()));
-                CallbackHelper.callbackSuccess(jsInAppMessageDidDisplayCallBack, onDidDisplayResult);
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            JSONObject onDidDisplayResult = new JSONObject();
+            onDidDisplayResult.put("message", OneSignalSerializer.serializeInAppMessage(event.getMessage()));
+            eventCallbacks.deliver(EventCallbackRegistry.IN_APP_MESSAGE_DID_DISPLAY, onDidDisplayResult);
+        } catch (JSONException e) {
+            failed = true;
+            e.printStackTrace();
+        } finally {
+            BridgeMetrics.recordEvent(
+                    EventCallbackRegistry.IN_APP_MESSAGE_DID_DISPLAY, System.nanoTime() - start, failed);
         }
     }
 
     @Override
     public void onWillDismiss(IInAppMessageWillDismissEvent event) {
-        if (jsInAppMessageWillDismissCallback != null) {
-            try {
-                JSONObject onWillDismissResult = new JSONObject();
-                onWillDismissResult.put("message", serializeInAppMessage(event.getMessage()));
-                CallbackHelper.callbackSuccess(jsInAppMessageWillDismissCallback, onWillDismissResult);
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            JSONObject onWillDismissResult = new JSONObject();
+            onWillDismissResult.put("message", OneSignalSerializer.serializeInAppMessage(event.getMessage()));
+            eventCallbacks.deliver(EventCallbackRegistry.IN_APP_MESSAGE_WILL_DISMISS, onWillDismissResult);
+        } catch (JSONException e) {
+            failed = true;
+            e.printStackTrace();
+        } finally {
+            BridgeMetrics.recordEvent(
+                    EventCallbackRegistry.IN_APP_MESSAGE_WILL_DISMISS, System.nanoTime() - start, failed);
         }
     }
 
     @Override
     public void onDidDismiss(IInAppMessageDidDismissEvent event) {
-        if (jsInAppMessageDidDismissCallBack != null) {
-            try {
-                JSONObject onDidDismissResult = new JSONObject();
-                onDidDismissResult.put("message", serializeInAppMessage(event.getMessage()));
-                CallbackHelper.callbackSuccess(jsInAppMessageDidDismissCallBack, onDidDismissResult);
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            JSONObject onDidDismissResult = new JSONObject();
+            onDidDismissResult.put("message", OneSignalSerializer.serializeInAppMessage(event.getMessage()));
+            eventCallbacks.deliver(EventCallbackRegistry.IN_APP_MESSAGE_DID_DISMISS, onDidDismissResult);
+        } catch (JSONException e) {
+            failed = true;
+            e.printStackTrace();
+        } finally {
+            BridgeMetrics.recordEvent(
+                    EventCallbackRegistry.IN_APP_MESSAGE_DID_DISMISS, System.nanoTime() - start, failed);
         }
     }
 
-    public boolean setOnWillDisplayInAppMessageHandler(CallbackContext callbackContext) {
-        jsInAppMessageWillDisplayCallback = callbackContext;
+    public boolean setOnWillDisplayInAppMessageHandler(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        eventCallbacks.register(EventCallbackRegistry.IN_APP_MESSAGE_WILL_DISPLAY, subscriptionId, callbackContext);
         return true;
     }
 
-    public boolean setOnDidDisplayInAppMessageHandler(CallbackContext callbackContext) {
-        jsInAppMessageDidDisplayCallBack = callbackContext;
+    public boolean setOnDidDisplayInAppMessageHandler(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        eventCallbacks.register(EventCallbackRegistry.IN_APP_MESSAGE_DID_DISPLAY, subscriptionId, callbackContext);
         return true;
     }
 
-    public boolean setOnWillDismissInAppMessageHandler(CallbackContext callbackContext) {
-        jsInAppMessageWillDismissCallback = callbackContext;
+    public boolean setOnWillDismissInAppMessageHandler(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        eventCallbacks.register(EventCallbackRegistry.IN_APP_MESSAGE_WILL_DISMISS, subscriptionId, callbackContext);
         return true;
     }
 
-    public boolean setOnDidDismissInAppMessageHandler(CallbackContext callbackContext) {
-        jsInAppMessageDidDismissCallBack = callbackContext;
+    public boolean setOnDidDismissInAppMessageHandler(CallbackContext callbackContext, JSONArray data) {
+        String subscriptionId = OneSignalUtils.optSubscriptionId(data, 0);
+        eventCallbacks.register(EventCallbackRegistry.IN_APP_MESSAGE_DID_DISMISS, subscriptionId, callbackContext);
         return true;
     }
 
     /**
-     * I N I T I A L I Z A T I O N
+     * E V E N T    B U F F E R
      */
-    public boolean init(CallbackContext callbackContext, JSONArray data) {
-        if (initDone) {
-            Logging.debug("Already initialized the OneSignal Cordova SDK", null);
-            return true;
-        }
+    @Override
+    protected void pluginInitialize() {
+        registerActions();
+
+        BridgeMetrics.setEnabled(preferences.getBoolean(BRIDGE_METRICS_PREFERENCE, true));
+        actions.setObserver((action, durationNanos, handled, error) ->
+                BridgeMetrics.recordAction(action, durationNanos, !handled || error != null));
+
+        // configured from config.xml so it is in effect before any JS has loaded
+        int capacity =
+                preferences.getInteger(EVENT_BUFFER_CAPACITY_PREFERENCE, EventCallbackRegistry.DEFAULT_BUFFER_CAPACITY);
+        String dropPolicy = preferences.getString(EVENT_BUFFER_DROP_POLICY_PREFERENCE, "dropOldest");
+        eventCallbacks.configureBuffers(capacity, PendingEventBuffer.DropPolicy.fromString(dropPolicy));
+
+        OneSignalObserverController.setCoalescingWindows(
+                preferences.getInteger(PUSH_SUBSCRIPTION_COALESCE_PREFERENCE, 0),
+                preferences.getInteger(USER_STATE_COALESCE_PREFERENCE, 0));
+
+        OneSignalController.configureTagWriteCombining(
+                preferences.getInteger(TAG_FLUSH_INTERVAL_PREFERENCE, 0),
+                preferences.getInteger(TAG_MAX_PENDING_PREFERENCE, WriteCombiningBuffer.DEFAULT_MAX_PENDING_KEYS));
+        OneSignalController.configureAliasWriteCombining(
+                preferences.getInteger(ALIAS_FLUSH_INTERVAL_PREFERENCE, 0),
+                preferences.getInteger(ALIAS_MAX_PENDING_PREFERENCE, WriteCombiningBuffer.DEFAULT_MAX_PENDING_KEYS));
+        OneSignalOutcomeController.configureAggregation(
+                preferences.getInteger(OUTCOME_FLUSH_INTERVAL_PREFERENCE, 0),
+                preferences.getBoolean(OUTCOME_FLUSH_ON_BACKGROUND_PREFERENCE, true));
+
+        // events tracked before init wait here, and events spilled by a previous process are replayed after init
+        OneSignalController.initTrackEventQueue(
+                cordova.getActivity().getApplicationContext().getFilesDir(),
+                preferences.getInteger(TRACK_EVENT_QUEUE_CAPACITY_PREFERENCE, TrackEventQueue.DEFAULT_CAPACITY));
+        OneSignalController.configureTrackEventLimits(
+                preferences.getInteger(TRACK_EVENT_MAX_DEPTH_PREFERENCE, BoundedJsonConverter.DEFAULT_MAX_DEPTH),
+                preferences.getInteger(TRACK_EVENT_MAX_KEYS_PREFERENCE, BoundedJsonConverter.DEFAULT_MAX_KEYS),
+                preferences.getInteger(
+                        TRACK_EVENT_MAX_STRING_LENGTH_PREFERENCE, BoundedJsonConverter.DEFAULT_MAX_STRING_LENGTH));
+        foregroundDelivery.configure(
+                preferences.getInteger(FOREGROUND_MAX_PER_SECOND_PREFERENCE, 0),
+                preferences.getInteger(FOREGROUND_QUEUE_CAPACITY_PREFERENCE, ForegroundDeliveryQueue.DEFAULT_CAPACITY),
+                preferences.getInteger(
+                        FOREGROUND_MAX_WAIT_PREFERENCE, (int) ForegroundDeliveryQueue.DEFAULT_MAX_WAIT_MS),
+                ForegroundDeliveryQueue.CollapseKey.fromString(
+                        preferences.getString(FOREGROUND_COLLAPSE_BY_PREFERENCE, "collapseId")),
+                ForegroundDeliveryQueue.OverflowPolicy.fromString(
+                        preferences.getString(FOREGROUND_OVERFLOW_PREFERENCE, "display")));
+        notificationWillDisplayStore.setDecisionDeadline(
+                preferences.getInteger(WILL_DISPLAY_DEADLINE_PREFERENCE, 0),
+                !"discard".equals(preferences.getString(WILL_DISPLAY_DEADLINE_ACTION_PREFERENCE, "display")));
+    }
 
-        initDone = true;
-        OneSignalWrapper.setSdkType("cordova");
-        OneSignalWrapper.setSdkVersion("050500");
+    private boolean setEventBufferConfig(JSONArray data) {
         try {
-            String appId = data.getString(0);
-            OneSignal.initWithContext(this.cordova.getActivity(), appId);
-
-            // add listeners
-            OneSignal.getInAppMessages().addLifecycleListener(this);
-            OneSignal.getInAppMessages().addClickListener(this);
-            OneSignal.getNotifications().addForegroundLifecycleListener(this);
-
-            CallbackHelper.callbackSuccessBoolean(callbackContext, true);
+            int capacity = data.getInt(0);
+            String dropPolicy = data.optString(1, "dropOldest");
+            eventCallbacks.configureBuffers(capacity, PendingEventBuffer.DropPolicy.fromString(dropPolicy));
             return true;
         } catch (JSONException e) {
-            Logging.error(TAG + "execute: Got JSON Exception " + e.getMessage(), null);
+            e.printStackTrace();
             return false;
         }
     }
 
-    @Override
-    public boolean execute(String action, JSONArray data, CallbackContext callbackContext) {
-        boolean result = false;
-
-        switch (action) {
-            case ADD_NOTIFICATION_CLICK_LISTENER:
-                result = addNotificationClickListener(callbackContext);
-                break;
-
-            case ADD_FOREGROUND_LIFECYCLE_LISTENER:
-                result = addForegroundLifecycleListener(callbackContext);
-                break;
-
-            case PROCEED_WITH_WILL_DISPLAY:
-                result = proceedWithWillDisplay(data);
-                break;
-
-            case DISPLAY_NOTIFICATION:
-                result = displayNotification(data);
-                break;
-
-            case PREVENT_DEFAULT:
-                result = preventDefault(data);
-                break;
-
-            case SET_IN_APP_MESSAGE_CLICK_HANDLER:
-                result = setInAppMessageClickHandler(callbackContext);
-                break;
-
-            case SET_ON_WILL_DISPLAY_IN_APP_MESSAGE_HANDLER:
-                result = setOnWillDisplayInAppMessageHandler(callbackContext);
-                break;
-
-            case SET_ON_DID_DISPLAY_IN_APP_MESSAGE_HANDLER:
-                result = setOnDidDisplayInAppMessageHandler(callbackContext);
-                break;
-
-            case SET_ON_WILL_DISMISS_IN_APP_MESSAGE_HANDLER:
-                result = setOnWillDismissInAppMessageHandler(callbackContext);
-                break;
-
-            case SET_ON_DID_DISMISS_IN_APP_MESSAGE_HANDLER:
-                result = setOnDidDismissInAppMessageHandler(callbackContext);
-                break;
-
-            case INIT:
-                result = init(callbackContext, data);
-                break;
-
-            case SET_LANGUAGE:
-                result = OneSignalController.setLanguage(data);
-                break;
-
-            case LOGIN:
-                result = OneSignalController.login(data);
-                break;
-
-            case LOGOUT:
-                result = OneSignalController.logout();
-                break;
-
-            case ADD_PERMISSION_OBSERVER:
-                result = OneSignalObserverController.addPermissionObserver(callbackContext);
-                break;
-
-            case ADD_PUSH_SUBSCRIPTION_OBSERVER:
-                result = OneSignalObserverController.addPushSubscriptionObserver(callbackContext);
-                break;
-
-            case ADD_USER_STATE_OBSERVER:
-                result = OneSignalObserverController.addUserStateObserver(callbackContext);
-                break;
-
-            case GET_ONESIGNAL_ID:
-                result = OneSignalController.getOnesignalId(callbackContext);
-                break;
-
-            case GET_EXTERNAL_ID:
-                result = OneSignalController.getExternalId(callbackContext);
-                break;
-
-            case OPT_IN:
-                result = OneSignalController.optInPushSubscription();
-                break;
-
-            case OPT_OUT:
-                result = OneSignalController.optOutPushSubscription();
-                break;
-
-            case GET_ID:
-                result = OneSignalController.getPushSubscriptionId(callbackContext);
-                break;
-
-            case GET_TOKEN:
-                result = OneSignalController.getPushSubscriptionToken(callbackContext);
-                break;
-
-            case GET_OPTED_IN:
-                result = OneSignalController.getPushSubscriptionOptedIn(callbackContext);
-                break;
-
-            case ADD_ALIASES:
-                result = OneSignalController.addAliases(data);
-                break;
-
-            case REMOVE_ALIASES:
-                result = OneSignalController.removeAliases(data);
-                break;
-
-            case ADD_TAGS:
-                result = OneSignalController.addTags(data);
-                break;
-
-            case REMOVE_TAGS:
-                result = OneSignalController.removeTags(data);
-                break;
-
-            case GET_TAGS:
-                result = OneSignalController.getTags(callbackContext);
-                break;
-
-            case REGISTER_FOR_PROVISIONAL_AUTHORIZATION:
-                result = OneSignalController.registerForProvisionalAuthorization();
-                break;
-
-            case REQUEST_PERMISSION:
-                result = OneSignalController.requestPermission(callbackContext, data);
-                break;
-
-            case GET_PERMISSION_INTERNAL:
-                result = OneSignalController.getPermissionInternal(callbackContext);
-                break;
-
-            case PERMISSION_NATIVE:
-                result = OneSignalController.permissionNative(callbackContext);
-                break;
-
-            case CAN_REQUEST_PERMISSION:
-                result = OneSignalController.canRequestPermission(callbackContext);
-                break;
-
-            case CLEAR_ALL_NOTIFICATIONS:
-                result = OneSignalController.clearAllNotifications();
-                break;
-
-            case REMOVE_NOTIFICATION:
-                result = OneSignalController.removeNotification(data);
-                break;
-
-            case REMOVE_GROUPED_NOTIFICATIONS:
-                result = OneSignalController.removeGroupedNotifications(data);
-                break;
-
-            case SET_LOG_LEVEL:
-                OneSignalController.setLogLevel(data);
-                break;
-
-            case SET_ALERT_LEVEL:
-                OneSignalController.setAlertLevel(data);
-                break;
-
-            case ADD_EMAIL:
-                result = OneSignalEmailController.addEmail(data);
-                break;
-
-            case REMOVE_EMAIL:
-                result = OneSignalEmailController.removeEmail(data);
-                break;
-
-            case ADD_SMS:
-                result = OneSignalSMSController.addSms(data);
-                break;
-
-            case REMOVE_SMS:
-                result = OneSignalSMSController.removeSms(data);
-                break;
-
-            case REQUEST_LOCATION_PERMISSION:
-                result = OneSignalController.requestLocationPermission();
-                break;
-
-            case SET_LOCATION_SHARED:
-                OneSignalController.setLocationShared(data);
-                break;
-
-            case IS_LOCATION_SHARED:
-                result = OneSignalController.isLocationShared(callbackContext);
-                break;
+    private boolean getEventBufferStats(CallbackContext callbackContext) {
+        try {
+            CallbackHelper.callbackSuccess(callbackContext, eventCallbacks.getBufferStats());
+        } catch (JSONException e) {
+            e.printStackTrace();
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+        }
+        return true;
+    }
 
-            case SET_PRIVACY_CONSENT_REQUIRED:
-                result = OneSignalController.setPrivacyConsentRequired(data);
-                break;
+    /**
+     * M E T R I C S
+     */
+    private boolean getBridgeMetrics(CallbackContext callbackContext, JSONArray data) {
+        try {
+            boolean reset = data.optBoolean(0, false);
+            CallbackHelper.callbackSuccess(callbackContext, BridgeMetrics.toJSON(reset));
+        } catch (JSONException e) {
+            e.printStackTrace();
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+        }
+        return true;
+    }
 
-            case SET_PRIVACY_CONSENT_GIVEN:
-                result = OneSignalController.setPrivacyConsentGiven(data);
-                break;
+    /**
+     * B A T C H
+     */
+    private boolean executeBatch(CallbackContext callbackContext, JSONArray data) {
+        try {
+            JSONArray calls = data.getJSONArray(0);
+            JSONArray results = new JSONArray();
+
+            for (int i = 0; i < calls.length(); i++) {
+                BatchCallbackContext batchCallbackContext =
+                        new BatchCallbackContext(callbackContext.getCallbackId(), this.webView);
+                String action = null;
+                boolean handled = false;
+                // one failing call must not cost JS the results of the others
+                try {
+                    JSONObject call = calls.getJSONObject(i);
+                    action = call.getString("action");
+                    JSONArray args = call.optJSONArray("args");
+                    if (args == null) {
+                        args = new JSONArray();
+                    }
+
+                    ActionRegistry.Action registeredAction = actions.get(action);
+                    if (registeredAction == null || registeredAction.hasFlag(ActionRegistry.NOT_BATCHABLE)) {
+                        Logging.error(TAG + "Action cannot be batched : " + action, null);
+                        CallbackHelper.callbackError(batchCallbackContext, "Action cannot be batched : " + action);
+                    } else {
+                        handled = actions.dispatch(registeredAction, args, batchCallbackContext);
+                    }
+                } catch (Throwable t) {
+                    Logging.error(TAG + "executeBatch: " + action + " failed", t);
+                    CallbackHelper.callbackError(batchCallbackContext, t.toString());
+                    handled = false;
+                }
+                results.put(batchCallbackContext.toBatchEntry(action, handled));
+            }
 
-            case ADD_TRIGGERS:
-                result = OneSignalInAppMessagingController.addTriggers(data);
-                break;
+            CallbackHelper.callbackSuccessArray(callbackContext, results);
+            return true;
+        } catch (JSONException e) {
+            Logging.error(TAG + "executeBatch: Got JSON Exception " + e.getMessage(), null);
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+            return false;
+        }
+    }
 
-            case REMOVE_TRIGGERS:
-                result = OneSignalInAppMessagingController.removeTriggers(data);
-                break;
+    /**
+     * I N I T I A L I Z A T I O N
+     */
+    public boolean init(CallbackContext callbackContext, JSONArray data) {
+        if (initDone || initPending) {
+            Logging.debug("Already initialized the OneSignal Cordova SDK", null);
+            return true;
+        }
 
-            case CLEAR_TRIGGERS:
-                result = OneSignalInAppMessagingController.clearTriggers();
-                break;
+        final String appId;
+        try {
+            appId = data.getString(0);
+        } catch (JSONException e) {
+            Logging.error(TAG + "execute: Got JSON Exception " + e.getMessage(), null);
+            return false;
+        }
+        JSONObject options = data.optJSONObject(1);
+        boolean async = options != null && options.optBoolean("async", false);
 
-            case SET_PAUSED:
-                result = OneSignalInAppMessagingController.setPaused(data);
-                break;
+        startupTimings.start(async ? "async" : "sync");
+        long phaseStart = System.nanoTime();
+        OneSignalWrapper.setSdkType("cordova");
+        OneSignalWrapper.setSdkVersion("050500");
+        phaseStart = startupTimings.record(StartupTimings.WRAPPER_SETUP, phaseStart);
 
-            case IS_PAUSED:
-                result = OneSignalInAppMessagingController.isPaused(callbackContext);
-                break;
+        if (!async) {
+            initSdkAndReport(callbackContext, appId, phaseStart);
+            return true;
+        }
 
-            case ADD_OUTCOME:
-                result = OneSignalOutcomeController.addOutcome(data);
-                break;
+        // the WebView thread moves on; actions JS issues meanwhile that need the SDK queue behind this on the executor
+        initPending = true;
+        final long queuedAt = phaseStart;
+        PluginScheduler.executeAction(() -> {
+            try {
+                initSdkAndReport(callbackContext, appId, startupTimings.record(StartupTimings.QUEUE_WAIT, queuedAt));
+            } finally {
+                initPending = false;
+            }
+        });
+        return true;
+    }
 
-            case ADD_UNIQUE_OUTCOME:
-                result = OneSignalOutcomeController.addUniqueOutcome(data);
-                break;
+    /** Runs {@link #initSdk} and answers JS with true, or with an error if it failed so init can be called again */
+    private void initSdkAndReport(CallbackContext callbackContext, String appId, long phaseStart) {
+        try {
+            initSdk(appId, phaseStart);
+            initDone = true;
+        } catch (Throwable t) {
+            Logging.error(TAG + "init: Could not initialize OneSignal", t);
+            removeListeners();
+            CallbackHelper.callbackError(callbackContext, "Could not initialize OneSignal: " + t);
+            return;
+        }
+        CallbackHelper.callbackSuccessBoolean(callbackContext, true);
+    }
 
-            case ADD_OUTCOME_WITH_VALUE:
-                result = OneSignalOutcomeController.addOutcomeWithValue(data);
-                break;
+    private void initSdk(String appId, long phaseStart) {
+        OneSignal.initWithContext(this.cordova.getActivity(), appId);
+        phaseStart = startupTimings.record(StartupTimings.INIT_WITH_CONTEXT, phaseStart);
+
+        // add listeners
+        OneSignal.getInAppMessages().addLifecycleListener(this);
+        OneSignal.getInAppMessages().addClickListener(this);
+        OneSignal.getNotifications().addForegroundLifecycleListener(this);
+        OneSignal.getNotifications().addClickListener(this);
+        startupTimings.record(StartupTimings.LISTENER_REGISTRATION, phaseStart);
+        OneSignalController.startTrackEventQueue();
+        startupTimings.finish();
+    }
 
-            case ENTER_LIVE_ACTIVITY:
-                result = OneSignalController.enterLiveActivity();
-                break;
+    private boolean getInitTimings(CallbackContext callbackContext) {
+        try {
+            CallbackHelper.callbackSuccess(callbackContext, startupTimings.toJSON());
+        } catch (JSONException e) {
+            e.printStackTrace();
+            CallbackHelper.callbackError(callbackContext, e.getMessage());
+        }
+        return true;
+    }
 
-            case EXIT_LIVE_ACTIVITY:
-                result = OneSignalController.exitLiveActivity();
-                break;
+    /**
+     * A C T I O N S
+     */
+    private void registerActions() {
+        actions.register(
+                ADD_NOTIFICATION_CLICK_LISTENER,
+                (data, callbackContext) -> addNotificationClickListener(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(
+                ADD_FOREGROUND_LIFECYCLE_LISTENER,
+                (data, callbackContext) -> addForegroundLifecycleListener(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(SET_NOTIFICATION_FIELDS, (data, callbackContext) -> setNotificationFields(data));
+        actions.register(SET_FOREGROUND_DELIVERY, (data, callbackContext) -> setForegroundDelivery(data));
+        actions.register(SET_WILL_DISPLAY_DEADLINE, (data, callbackContext) -> setWillDisplayDeadline(data));
+        actions.register(
+                GET_FOREGROUND_DELIVERY_STATS, (data, callbackContext) -> getForegroundDeliveryStats(callbackContext));
+        actions.register(
+                REMOVE_EVENT_SUBSCRIPTION,
+                (data, callbackContext) -> removeEventSubscription(data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(PROCEED_WITH_WILL_DISPLAY, (data, callbackContext) -> proceedWithWillDisplay(data));
+        actions.register(DISPLAY_NOTIFICATION, (data, callbackContext) -> displayNotification(data));
+        actions.register(PREVENT_DEFAULT, (data, callbackContext) -> preventDefault(data));
+        actions.register(
+                SET_IN_APP_MESSAGE_CLICK_HANDLER,
+                (data, callbackContext) -> setInAppMessageClickHandler(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(
+                SET_ON_WILL_DISPLAY_IN_APP_MESSAGE_HANDLER,
+                (data, callbackContext) -> setOnWillDisplayInAppMessageHandler(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(
+                SET_ON_DID_DISPLAY_IN_APP_MESSAGE_HANDLER,
+                (data, callbackContext) -> setOnDidDisplayInAppMessageHandler(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(
+                SET_ON_WILL_DISMISS_IN_APP_MESSAGE_HANDLER,
+                (data, callbackContext) -> setOnWillDismissInAppMessageHandler(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(
+                SET_ON_DID_DISMISS_IN_APP_MESSAGE_HANDLER,
+                (data, callbackContext) -> setOnDidDismissInAppMessageHandler(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE);
+        actions.register(INIT, (data, callbackContext) -> init(callbackContext, data), ActionRegistry.NOT_BATCHABLE);
+        actions.register(GET_INIT_TIMINGS, (data, callbackContext) -> getInitTimings(callbackContext));
+        actions.register(
+                SET_LANGUAGE,
+                (data, callbackContext) -> OneSignalController.setLanguage(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                LOGIN,
+                (data, callbackContext) -> OneSignalController.login(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                LOGOUT,
+                (data, callbackContext) -> OneSignalController.logout(),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                ADD_PERMISSION_OBSERVER,
+                (data, callbackContext) -> OneSignalObserverController.addPermissionObserver(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE | ActionRegistry.REQUIRES_INIT);
+        actions.register(
+                ADD_PUSH_SUBSCRIPTION_OBSERVER,
+                (data, callbackContext) ->
+                        OneSignalObserverController.addPushSubscriptionObserver(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE | ActionRegistry.REQUIRES_INIT);
+        actions.register(
+                ADD_USER_STATE_OBSERVER,
+                (data, callbackContext) -> OneSignalObserverController.addUserStateObserver(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE | ActionRegistry.REQUIRES_INIT);
+        actions.register(
+                SET_OBSERVER_COALESCING,
+                (data, callbackContext) -> OneSignalObserverController.setObserverCoalescing(data));
+        actions.register(
+                GET_ONESIGNAL_ID,
+                (data, callbackContext) -> OneSignalController.getOnesignalId(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                GET_EXTERNAL_ID,
+                (data, callbackContext) -> OneSignalController.getExternalId(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                OPT_IN,
+                (data, callbackContext) -> OneSignalController.optInPushSubscription(),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                OPT_OUT,
+                (data, callbackContext) -> OneSignalController.optOutPushSubscription(),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                GET_ID,
+                (data, callbackContext) -> OneSignalController.getPushSubscriptionId(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                GET_TOKEN,
+                (data, callbackContext) -> OneSignalController.getPushSubscriptionToken(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                GET_OPTED_IN,
+                (data, callbackContext) -> OneSignalController.getPushSubscriptionOptedIn(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                ADD_ALIASES,
+                (data, callbackContext) -> OneSignalController.addAliases(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REMOVE_ALIASES,
+                (data, callbackContext) -> OneSignalController.removeAliases(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                ADD_TAGS,
+                (data, callbackContext) -> OneSignalController.addTags(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REMOVE_TAGS,
+                (data, callbackContext) -> OneSignalController.removeTags(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                GET_TAGS,
+                (data, callbackContext) -> OneSignalController.getTags(callbackContext, data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                SET_TAG_WRITE_COMBINING,
+                (data, callbackContext) -> OneSignalController.setTagWriteCombining(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                SET_ALIAS_WRITE_COMBINING,
+                (data, callbackContext) -> OneSignalController.setAliasWriteCombining(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                FLUSH_PENDING_WRITES,
+                (data, callbackContext) ->
+                        OneSignalController.flushPendingWrites() && OneSignalOutcomeController.flushOutcomes(),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                GET_STATE_SNAPSHOT,
+                (data, callbackContext) -> OneSignalController.getStateSnapshot(callbackContext, data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REGISTER_FOR_PROVISIONAL_AUTHORIZATION,
+                (data, callbackContext) -> OneSignalController.registerForProvisionalAuthorization());
+        actions.register(
+                REQUEST_PERMISSION,
+                (data, callbackContext) -> OneSignalController.requestPermission(callbackContext, data),
+                ActionRegistry.NOT_BATCHABLE | ActionRegistry.REQUIRES_INIT);
+        actions.register(
+                GET_PERMISSION_INTERNAL,
+                (data, callbackContext) -> OneSignalController.getPermissionInternal(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                PERMISSION_NATIVE,
+                (data, callbackContext) -> OneSignalController.permissionNative(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                CAN_REQUEST_PERMISSION,
+                (data, callbackContext) -> OneSignalController.canRequestPermission(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                CLEAR_ALL_NOTIFICATIONS,
+                (data, callbackContext) -> OneSignalController.clearAllNotifications(),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REMOVE_NOTIFICATION,
+                (data, callbackContext) -> OneSignalController.removeNotification(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REMOVE_GROUPED_NOTIFICATIONS,
+                (data, callbackContext) -> OneSignalController.removeGroupedNotifications(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(SET_LOG_LEVEL, (data, callbackContext) -> {
+            OneSignalController.setLogLevel(data);
+            return true;
+        });
+        actions.register(SET_ALERT_LEVEL, (data, callbackContext) -> {
+            OneSignalController.setAlertLevel(data);
+            return true;
+        });
+        actions.register(
+                ADD_EMAIL,
+                (data, callbackContext) -> OneSignalEmailController.addEmail(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REMOVE_EMAIL,
+                (data, callbackContext) -> OneSignalEmailController.removeEmail(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                ADD_SMS,
+                (data, callbackContext) -> OneSignalSMSController.addSms(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REMOVE_SMS,
+                (data, callbackContext) -> OneSignalSMSController.removeSms(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REQUEST_LOCATION_PERMISSION,
+                (data, callbackContext) -> OneSignalController.requestLocationPermission(),
+                ActionRegistry.NOT_BATCHABLE | ActionRegistry.REQUIRES_INIT);
+        actions.register(SET_LOCATION_SHARED, (data, callbackContext) -> {
+            OneSignalController.setLocationShared(data);
+            return true;
+        }, ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                IS_LOCATION_SHARED,
+                (data, callbackContext) -> OneSignalController.isLocationShared(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                SET_PRIVACY_CONSENT_REQUIRED,
+                (data, callbackContext) -> OneSignalController.setPrivacyConsentRequired(data));
+        actions.register(
+                SET_PRIVACY_CONSENT_GIVEN,
+                (data, callbackContext) -> OneSignalController.setPrivacyConsentGiven(data));
+        actions.register(
+                ADD_TRIGGERS,
+                (data, callbackContext) -> OneSignalInAppMessagingController.addTriggers(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                SET_TRIGGERS,
+                (data, callbackContext) -> OneSignalInAppMessagingController.setTriggers(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                REMOVE_TRIGGERS,
+                (data, callbackContext) -> OneSignalInAppMessagingController.removeTriggers(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                CLEAR_TRIGGERS,
+                (data, callbackContext) -> OneSignalInAppMessagingController.clearTriggers(),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                SET_PAUSED,
+                (data, callbackContext) -> OneSignalInAppMessagingController.setPaused(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                IS_PAUSED,
+                (data, callbackContext) -> OneSignalInAppMessagingController.isPaused(callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                ADD_OUTCOME,
+                (data, callbackContext) -> OneSignalOutcomeController.addOutcome(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                ADD_UNIQUE_OUTCOME,
+                (data, callbackContext) -> OneSignalOutcomeController.addUniqueOutcome(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                ADD_OUTCOME_WITH_VALUE,
+                (data, callbackContext) -> OneSignalOutcomeController.addOutcomeWithValue(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                SET_OUTCOME_AGGREGATION,
+                (data, callbackContext) -> OneSignalOutcomeController.setOutcomeAggregation(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(ENTER_LIVE_ACTIVITY, (data, callbackContext) -> OneSignalController.enterLiveActivity());
+        actions.register(EXIT_LIVE_ACTIVITY, (data, callbackContext) -> OneSignalController.exitLiveActivity());
+        actions.register(SET_PUSH_TO_START_TOKEN, (data, callbackContext) -> OneSignalController.setPushToStartToken());
+        actions.register(
+                REMOVE_PUSH_TO_START_TOKEN,
+                (data, callbackContext) -> OneSignalController.removePushToStartToken());
+        actions.register(
+                SETUP_DEFAULT_ACTIVITY,
+                (data, callbackContext) -> OneSignalController.setupDefaultLiveActivity());
+        actions.register(
+                START_DEFAULT_LIVE_ACTIVITY,
+                (data, callbackContext) -> OneSignalController.startDefaultLiveActivity());
+        actions.register(
+                TRACK_EVENT,
+                (data, callbackContext) -> OneSignalController.trackEvent(data, callbackContext),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                SET_TRACK_EVENT_LIMITS,
+                (data, callbackContext) -> OneSignalController.setTrackEventLimits(data),
+                ActionRegistry.RUN_IN_BACKGROUND);
+        actions.register(
+                GET_WILL_DISPLAY_EVENT_STORE_STATS,
+                (data, callbackContext) -> getWillDisplayEventStoreStats(callbackContext));
+        actions.register(
+                GET_NOTIFICATION_PAYLOAD_CACHE_STATS,
+                (data, callbackContext) -> getNotificationPayloadCacheStats(callbackContext));
+        actions.register(
+                EXECUTE_BATCH,
+                (data, callbackContext) -> executeBatch(callbackContext, data),
+                ActionRegistry.RUN_IN_BACKGROUND | ActionRegistry.NOT_BATCHABLE);
+        actions.register(SET_EVENT_BUFFER_CONFIG, (data, callbackContext) -> setEventBufferConfig(data));
+        actions.register(GET_EVENT_BUFFER_STATS, (data, callbackContext) -> getEventBufferStats(callbackContext));
+        actions.register(GET_BRIDGE_METRICS, (data, callbackContext) -> getBridgeMetrics(callbackContext, data));
+    }
 
-            case SET_PUSH_TO_START_TOKEN:
-                result = OneSignalController.setPushToStartToken();
-                break;
+    @Override
+    public boolean execute(String action, JSONArray data, CallbackContext callbackContext) throws JSONException {
+        ActionRegistry.Action registeredAction = actions.get(action);
+        if (registeredAction == null) {
+            Logging.error(TAG + "Invalid action : " + action, null);
+            CallbackHelper.callbackError(callbackContext, "Invalid action : " + action);
+            return false;
+        }
 
-            case REMOVE_PUSH_TO_START_TOKEN:
-                result = OneSignalController.removePushToStartToken();
-                break;
+        boolean waitsForInit = initPending && registeredAction.hasFlag(ActionRegistry.REQUIRES_INIT);
+        if (!waitsForInit && !registeredAction.hasFlag(ActionRegistry.RUN_IN_BACKGROUND)) {
+            return actions.dispatch(registeredAction, data, callbackContext);
+        }
 
-            case SETUP_DEFAULT_ACTIVITY:
-                result = OneSignalController.setupDefaultLiveActivity();
-                break;
+        PluginScheduler.executeAction(() -> {
+            if (waitsForInit && !initDone) {
+                CallbackHelper.callbackError(callbackContext, "OneSignal is not initialized : " + action);
+                return;
+            }
+            try {
+                if (!actions.dispatch(registeredAction, data, callbackContext)) {
+                    CallbackHelper.callbackError(callbackContext, "Could not complete action : " + action);
+                }
+            } catch (Throwable t) {
+                Logging.error(TAG + "execute: " + action + " failed", t);
+                CallbackHelper.callbackError(callbackContext, "Could not complete action : " + action);
+            }
+        });
+        return true;
+    }
 
-            case START_DEFAULT_LIVE_ACTIVITY:
-                result = OneSignalController.startDefaultLiveActivity();
-                break;
+    /**
+     * Registers an app-provided action that JS can call through cordova.exec on this plugin, without modifying it.
+     * Flags are a combination of {@link ActionRegistry#RUN_IN_BACKGROUND}, {@link ActionRegistry#NOT_BATCHABLE} and
+     * {@link ActionRegistry#REQUIRES_INIT}. Built-in actions cannot be replaced.
+     */
+    public static void registerActionHandler(String action, ActionRegistry.ActionHandler handler, int flags) {
+        ActionRegistry.registerCustom(action, handler, flags);
+    }
 
-            case TRACK_EVENT:
-                result = OneSignalController.trackEvent(data);
-                break;
+    @Override
+    public void onReset() {
+        // the page that registered the callbacks is gone; buffer events until the reloaded page registers again
+        eventCallbacks.clear();
+    }
 
-            default:
-                Logging.error(TAG + "Invalid action : " + action, null);
-                CallbackHelper.callbackError(callbackContext, "Invalid action : " + action);
-        }
-        return result;
+    @Override
+    public void onPause(boolean multitasking) {
+        // the process may be killed while in the background; don't leave combined writes waiting for their interval
+        PluginScheduler.executeAction(() -> {
+            OneSignalController.flushPendingWrites();
+            OneSignalOutcomeController.onBackground();
+            OneSignalController.persistTrackEvents();
+        });
     }
 
-    /**
-     * S E R I A L I Z E R S
-     */
-    private JSONObject serializeNotification(INotification notification) throws JSONException {
-        JSONObject foregroundData = new JSONObject();
-
-        foregroundData.put("body", notification.getBody());
-        foregroundData.put("sound", notification.getSound());
-        foregroundData.put("title", notification.getTitle());
-        foregroundData.put("launchURL", notification.getLaunchURL());
-        foregroundData.put("rawPayload", notification.getRawPayload());
-        foregroundData.put("actionButtons", notification.getActionButtons());
-        foregroundData.put("additionalData", notification.getAdditionalData());
-        foregroundData.put("notificationId", notification.getNotificationId());
-        foregroundData.put("groupKey", notification.getGroupKey());
-        foregroundData.put("groupMessage", notification.getGroupMessage());
-        foregroundData.put("groupedNotifications", notification.getGroupedNotifications());
-        foregroundData.put("ledColor", notification.getLedColor());
-        foregroundData.put("priority", notification.getPriority());
-        foregroundData.put("smallIcon", notification.getSmallIcon());
-        foregroundData.put("largeIcon", notification.getLargeIcon());
-        foregroundData.put("bigPicture", notification.getBigPicture());
-        foregroundData.put("collapseId", notification.getCollapseId());
-        foregroundData.put("fromProjectNumber", notification.getFromProjectNumber());
-        foregroundData.put("smallIconAccentColor", notification.getSmallIconAccentColor());
-        foregroundData.put("lockScreenVisibility", notification.getLockScreenVisibility());
-        foregroundData.put("androidNotificationId", notification.getAndroidNotificationId());
-
-        return foregroundData;
-    }
-
-    private JSONObject serializeInAppMessage(IInAppMessage message) throws JSONException {
-        JSONObject json = new JSONObject();
-        json.put("messageId", message.getMessageId());
-        return json;
-    }
-
-    private JSONObject serializeInAppMessageClickEvent(IInAppMessageClickEvent event) throws JSONException {
-        JSONObject json = new JSONObject();
-        JSONObject clickResultJson = new JSONObject();
-
-        IInAppMessageClickResult result = event.getResult();
-        clickResultJson.put("actionId", result.getActionId());
-        clickResultJson.put("urlTarget", result.getUrlTarget());
-        clickResultJson.put("url", result.getUrl());
-        clickResultJson.put("closingMessage", result.getClosingMessage());
-
-        json.put("result", clickResultJson);
-        json.put("message", serializeInAppMessage(event.getMessage()));
-        return json;
-    }
-
-    private JSONObject serializeNotificationClickEvent(INotificationClickEvent event) throws JSONException {
-        JSONObject json = new JSONObject();
-        JSONObject clickResultJson = new JSONObject();
-
-        INotificationClickResult clickResult = event.getResult();
-        clickResultJson.put("actionId", clickResult.getActionId());
-        clickResultJson.put("url", clickResult.getUrl());
-
-        json.put("notification", serializeNotification(event.getNotification()));
-        json.put("result", clickResultJson);
-        return json;
+    @Override
+    public void onResume(boolean multitasking) {
+        OneSignalOutcomeController.onForeground();
     }
 
     @Override
@@ -724,10 +1141,19 @@ public class OneSignalPush extends CordovaPlugin
             return;
         }
 
-        hasAddedNotificationClickListener = false;
-        OneSignal.getNotifications().removeClickListener(this);
-        OneSignal.getNotifications().removeForegroundLifecycleListener(this);
-        OneSignal.getInAppMessages().removeClickListener(this);
-        OneSignal.getInAppMessages().removeLifecycleListener(this);
+        notificationWillDisplayStore.clear();
+        removeListeners();
+    }
+
+    /** Best effort: after a failed init the SDK may not hand out its managers at all */
+    private void removeListeners() {
+        try {
+            OneSignal.getNotifications().removeClickListener(this);
+            OneSignal.getNotifications().removeForegroundLifecycleListener(this);
+            OneSignal.getInAppMessages().removeClickListener(this);
+            OneSignal.getInAppMessages().removeLifecycleListener(this);
+        } catch (Throwable t) {
+            Logging.debug("OneSignal Cordova SDK could not remove listeners: " + t, null);
+        }
     }
 }
@@ -1,12 +1,11 @@
 package com.onesignal.cordova;
 
-import com.onesignal.OneSignal;
 import org.json.JSONArray;
 
 public class OneSignalSMSController {
     public static boolean addSms(JSONArray data) {
         try {
-            OneSignal.getUser().addSms(data.getString(0));
+            OneSignalSdk.getUser().addSms(data.getString(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
@@ -16,7 +15,7 @@ public class OneSignalSMSController {
 
     public static boolean removeSms(JSONArray data) {
         try {
-            OneSignal.getUser().removeSms(data.getString(0));
+            OneSignalSdk.getUser().removeSms(data.getString(0));
             return true;
         } catch (Throwable t) {
             t.printStackTrace();
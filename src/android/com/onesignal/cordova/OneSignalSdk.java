@@ -0,0 +1,55 @@
+package com.onesignal.cordova;
+
+import com.onesignal.OneSignal;
+import com.onesignal.inAppMessages.IInAppMessagesManager;
+import com.onesignal.notifications.INotificationsManager;
+import com.onesignal.session.ISessionManager;
+import com.onesignal.user.IUserManager;
+
+/**
+ * Caches the OneSignal SDK manager interfaces. Each is a singleton service that stays fixed once the SDK has been
+ * initialized, so it is resolved from the SDK's service container once rather than on every plugin call. Lookups
+ * made before initialization are not cached and fail as they would against {@link OneSignal} directly.
+ */
+public class OneSignalSdk {
+    private static volatile IUserManager user;
+    private static volatile INotificationsManager notifications;
+    private static volatile IInAppMessagesManager inAppMessages;
+    private static volatile ISessionManager session;
+
+    public static IUserManager getUser() {
+        IUserManager cached = user;
+        if (cached == null) {
+            cached = OneSignal.getUser();
+            user = cached;
+        }
+        return cached;
+    }
+
+    public static INotificationsManager getNotifications() {
+        INotificationsManager cached = notifications;
+        if (cached == null) {
+            cached = OneSignal.getNotifications();
+            notifications = cached;
+        }
+        return cached;
+    }
+
+    public static IInAppMessagesManager getInAppMessages() {
+        IInAppMessagesManager cached = inAppMessages;
+        if (cached == null) {
+            cached = OneSignal.getInAppMessages();
+            inAppMessages = cached;
+        }
+        return cached;
+    }
+
+    public static ISessionManager getSession() {
+        ISessionManager cached = session;
+        if (cached == null) {
+            cached = OneSignal.getSession();
+            session = cached;
+        }
+        return cached;
+    }
+}
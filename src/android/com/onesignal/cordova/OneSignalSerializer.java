@@ -0,0 +1,204 @@
+package com.onesignal.cordova;
+
+import com.onesignal.inAppMessages.IInAppMessage;
+import com.onesignal.inAppMessages.IInAppMessageClickEvent;
+import com.onesignal.inAppMessages.IInAppMessageClickResult;
+import com.onesignal.notifications.INotification;
+import com.onesignal.notifications.INotificationClickEvent;
+import com.onesignal.notifications.INotificationClickResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Converts OneSignal SDK notification and in-app message objects into the JSON payloads sent to JS.
+ *
+ * Kept free of Cordova types so the serializers can be benchmarked on a plain JVM.
+ */
+public class OneSignalSerializer {
+    /** Notification fields in the order they are serialized; bit i of a field mask selects field i */
+    public static final String[] NOTIFICATION_FIELDS = {
+        "body",
+        "sound",
+        "title",
+        "launchURL",
+        "rawPayload",
+        "actionButtons",
+        "additionalData",
+        "notificationId",
+        "groupKey",
+        "groupMessage",
+        "groupedNotifications",
+        "ledColor",
+        "priority",
+        "smallIcon",
+        "largeIcon",
+        "bigPicture",
+        "collapseId",
+        "fromProjectNumber",
+        "smallIconAccentColor",
+        "lockScreenVisibility",
+        "androidNotificationId",
+    };
+
+    static final int FIELD_BODY = 1 << 0;
+    static final int FIELD_SOUND = 1 << 1;
+    static final int FIELD_TITLE = 1 << 2;
+    static final int FIELD_LAUNCH_URL = 1 << 3;
+    static final int FIELD_RAW_PAYLOAD = 1 << 4;
+    static final int FIELD_ACTION_BUTTONS = 1 << 5;
+    static final int FIELD_ADDITIONAL_DATA = 1 << 6;
+    static final int FIELD_NOTIFICATION_ID = 1 << 7;
+    static final int FIELD_GROUP_KEY = 1 << 8;
+    static final int FIELD_GROUP_MESSAGE = 1 << 9;
+    static final int FIELD_GROUPED_NOTIFICATIONS = 1 << 10;
+    static final int FIELD_LED_COLOR = 1 << 11;
+    static final int FIELD_PRIORITY = 1 << 12;
+    static final int FIELD_SMALL_ICON = 1 << 13;
+    static final int FIELD_LARGE_ICON = 1 << 14;
+    static final int FIELD_BIG_PICTURE = 1 << 15;
+    static final int FIELD_COLLAPSE_ID = 1 << 16;
+    static final int FIELD_FROM_PROJECT_NUMBER = 1 << 17;
+    static final int FIELD_SMALL_ICON_ACCENT_COLOR = 1 << 18;
+    static final int FIELD_LOCK_SCREEN_VISIBILITY = 1 << 19;
+    static final int FIELD_ANDROID_NOTIFICATION_ID = 1 << 20;
+
+    public static final int ALL_NOTIFICATION_FIELDS = (1 << NOTIFICATION_FIELDS.length) - 1;
+
+    /**
+     * Returns the field mask selecting the named fields, or {@link #ALL_NOTIFICATION_FIELDS} when fields is null or
+     * empty. Unknown names are ignored. notificationId is always included since JS needs it to answer will-display
+     * events.
+     */
+    public static int notificationFieldMask(JSONArray fields) throws JSONException {
+        if (fields == null || fields.length() == 0) {
+            return ALL_NOTIFICATION_FIELDS;
+        }
+
+        int mask = FIELD_NOTIFICATION_ID;
+        for (int i = 0; i < fields.length(); i++) {
+            String field = fields.getString(i);
+            for (int bit = 0; bit < NOTIFICATION_FIELDS.length; bit++) {
+                if (NOTIFICATION_FIELDS[bit].equals(field)) {
+                    mask |= 1 << bit;
+                    break;
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static JSONObject serializeNotification(INotification notification) throws JSONException {
+        return serializeNotification(notification, ALL_NOTIFICATION_FIELDS);
+    }
+
+    /** Serializes only the fields selected by the mask, see {@link #notificationFieldMask} */
+    public static JSONObject serializeNotification(INotification notification, int fields) throws JSONException {
+        JSONObject foregroundData = new JSONObject();
+
+        if ((fields & FIELD_BODY) != 0) {
+            foregroundData.put("body", notification.getBody());
+        }
+        if ((fields & FIELD_SOUND) != 0) {
+            foregroundData.put("sound", notification.getSound());
+        }
+        if ((fields & FIELD_TITLE) != 0) {
+            foregroundData.put("title", notification.getTitle());
+        }
+        if ((fields & FIELD_LAUNCH_URL) != 0) {
+            foregroundData.put("launchURL", notification.getLaunchURL());
+        }
+        if ((fields & FIELD_RAW_PAYLOAD) != 0) {
+            foregroundData.put("rawPayload", notification.getRawPayload());
+        }
+        if ((fields & FIELD_ACTION_BUTTONS) != 0) {
+            foregroundData.put("actionButtons", notification.getActionButtons());
+        }
+        if ((fields & FIELD_ADDITIONAL_DATA) != 0) {
+            foregroundData.put("additionalData", notification.getAdditionalData());
+        }
+        if ((fields & FIELD_NOTIFICATION_ID) != 0) {
+            foregroundData.put("notificationId", notification.getNotificationId());
+        }
+        if ((fields & FIELD_GROUP_KEY) != 0) {
+            foregroundData.put("groupKey", notification.getGroupKey());
+        }
+        if ((fields & FIELD_GROUP_MESSAGE) != 0) {
+            foregroundData.put("groupMessage", notification.getGroupMessage());
+        }
+        if ((fields & FIELD_GROUPED_NOTIFICATIONS) != 0) {
+            foregroundData.put("groupedNotifications", notification.getGroupedNotifications());
+        }
+        if ((fields & FIELD_LED_COLOR) != 0) {
+            foregroundData.put("ledColor", notification.getLedColor());
+        }
+        if ((fields & FIELD_PRIORITY) != 0) {
+            foregroundData.put("priority", notification.getPriority());
+        }
+        if ((fields & FIELD_SMALL_ICON) != 0) {
+            foregroundData.put("smallIcon", notification.getSmallIcon());
+        }
+        if ((fields & FIELD_LARGE_ICON) != 0) {
+            foregroundData.put("largeIcon", notification.getLargeIcon());
+        }
+        if ((fields & FIELD_BIG_PICTURE) != 0) {
+            foregroundData.put("bigPicture", notification.getBigPicture());
+        }
+        if ((fields & FIELD_COLLAPSE_ID) != 0) {
+            foregroundData.put("collapseId", notification.getCollapseId());
+        }
+        if ((fields & FIELD_FROM_PROJECT_NUMBER) != 0) {
+            foregroundData.put("fromProjectNumber", notification.getFromProjectNumber());
+        }
+        if ((fields & FIELD_SMALL_ICON_ACCENT_COLOR) != 0) {
+            foregroundData.put("smallIconAccentColor", notification.getSmallIconAccentColor());
+        }
+        if ((fields & FIELD_LOCK_SCREEN_VISIBILITY) != 0) {
+            foregroundData.put("lockScreenVisibility", notification.getLockScreenVisibility());
+        }
+        if ((fields & FIELD_ANDROID_NOTIFICATION_ID) != 0) {
+            foregroundData.put("androidNotificationId", notification.getAndroidNotificationId());
+        }
+
+        return foregroundData;
+    }
+
+    public static JSONObject serializeInAppMessage(IInAppMessage message) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("messageId", message.getMessageId());
+        return json;
+    }
+
+    public static JSONObject serializeInAppMessageClickEvent(IInAppMessageClickEvent event) throws JSONException {
+        JSONObject json = new JSONObject();
+        JSONObject clickResultJson = new JSONObject();
+
+        IInAppMessageClickResult result = event.getResult();
+        clickResultJson.put("actionId", result.getActionId());
+        clickResultJson.put("urlTarget", result.getUrlTarget());
+        clickResultJson.put("url", result.getUrl());
+        clickResultJson.put("closingMessage", result.getClosingMessage());
+
+        json.put("result", clickResultJson);
+        json.put("message", serializeInAppMessage(event.getMessage()));
+        return json;
+    }
+
+    public static JSONObject serializeNotificationClickEvent(INotificationClickEvent event) throws JSONException {
+        return serializeNotificationClickEvent(event, ALL_NOTIFICATION_FIELDS);
+    }
+
+    public static JSONObject serializeNotificationClickEvent(INotificationClickEvent event, int notificationFields)
+            throws JSONException {
+        JSONObject json = new JSONObject();
+        JSONObject clickResultJson = new JSONObject();
+
+        INotificationClickResult clickResult = event.getResult();
+        clickResultJson.put("actionId", clickResult.getActionId());
+        clickResultJson.put("url", clickResult.getUrl());
+
+        json.put("notification", serializeNotification(event.getNotification(), notificationFields));
+        json.put("result", clickResultJson);
+        return json;
+    }
+}
@@ -1,5 +1,10 @@
 package com.onesignal.cordova;
 
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 public class OneSignalUtils {
@@ -16,4 +21,51 @@ public class OneSignalUtils {
             return JSONObject.NULL;
         }
     }
+
+    /** The subscription id JS passed at {@code index} when adding a listener, or null for the default subscription **/
+    public static String optSubscriptionId(JSONArray data, int index) {
+        if (data == null || data.isNull(index)) {
+            return null;
+        }
+        String id = data.optString(index, "");
+        return id.isEmpty() ? null : id;
+    }
+
+    /** Convert JSONObject to a String map, stringifying each value (tags, aliases) **/
+    public static Map<String, String> jsonObjectToStringMap(JSONObject json) throws JSONException {
+        Map<String, String> map = new HashMap<>();
+        Iterator<String> keys = json.keys();
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+            map.put(key, json.get(key).toString());
+        }
+
+        return map;
+    }
+
+    /** Convert JSONObject to a trigger map, writing each value the way JSON.stringify does in JS **/
+    public static Map<String, String> jsonObjectToTriggerMap(JSONObject json) throws JSONException {
+        Map<String, String> triggers = new HashMap<>();
+        Iterator<String> keys = json.keys();
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+            triggers.put(key, triggerValueToString(json.get(key)));
+        }
+
+        return triggers;
+    }
+
+    /** Strings are kept as they are; numbers lose a trailing ".0" (1, not 1.0), everything else is its JSON text **/
+    private static String triggerValueToString(Object value) throws JSONException {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Number) {
+            return JSONObject.numberToString((Number) value);
+        }
+        // Boolean, JSONObject, JSONArray and JSONObject.NULL ("null")
+        return value.toString();
+    }
 }
@@ -0,0 +1,200 @@
+package com.onesignal.cordova;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Sums outcome reports per name over a flush window so a burst of e.g. {@code addOutcomeWithValue("coins", n)} reaches
+ * the SDK as one call carrying the total.
+ *
+ * While enabled, valued outcomes are summed and sent once per name per window. Plain outcomes have no count parameter
+ * in the SDK, so they save nothing: each occurrence is still one SDK call, only deferred to the flush. A unique
+ * outcome is sent the first time its name is seen and repeats are dropped until the session ends, which is taken to
+ * be the app coming back after {@link #SESSION_TIMEOUT_MS} in the background (the SDK's own session timeout).
+ *
+ * Disabled (a flush interval of 0, the default), every call goes straight to the {@link Sink}.
+ *
+ * The sink reports whether each call reached the SDK. What a flush couldn't send is put back and sent with the next
+ * flush, and a unique outcome that couldn't be sent isn't counted as sent.
+ */
+public class OutcomeAggregator {
+    /** Each call returns false if the outcome couldn't be reported, e.g. before the SDK is initialized */
+    public interface Sink {
+        boolean addOutcome(String name);
+
+        boolean addOutcomeWithValue(String name, float value);
+
+        boolean addUniqueOutcome(String name);
+    }
+
+    public static final long SESSION_TIMEOUT_MS = 30_000;
+
+    private final Sink sink;
+
+    private long flushIntervalMs;
+    private boolean flushOnBackground = true;
+
+    /** Pending plain outcome occurrences and valued outcome totals per name, in first-seen order */
+    private final LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+
+    private final LinkedHashMap<String, Double> values = new LinkedHashMap<>();
+
+    /** Unique outcomes already sent this session */
+    private final Set<String> sentUnique = new HashSet<>();
+
+    private ScheduledFuture<?> scheduledFlush;
+    private long backgroundedAt;
+
+    public OutcomeAggregator(Sink sink) {
+        this.sink = sink;
+    }
+
+    /** A flush interval of 0 disables aggregation and flushes anything pending */
+    public void configure(long flushIntervalMs, boolean flushOnBackground) {
+        synchronized (this) {
+            this.flushIntervalMs = Math.max(flushIntervalMs, 0);
+            this.flushOnBackground = flushOnBackground;
+            if (this.flushIntervalMs > 0) {
+                return;
+            }
+            sentUnique.clear();
+        }
+        flush();
+    }
+
+    public synchronized long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public synchronized boolean getFlushOnBackground() {
+        return flushOnBackground;
+    }
+
+    public void addOutcome(String name) {
+        synchronized (this) {
+            if (flushIntervalMs > 0) {
+                Integer count = counts.get(name);
+                counts.put(name, count == null ? 1 : count + 1);
+                scheduleFlush();
+                return;
+            }
+        }
+        sink.addOutcome(name);
+    }
+
+    public void addOutcomeWithValue(String name, float value) {
+        synchronized (this) {
+            if (flushIntervalMs > 0) {
+                Double total = values.get(name);
+                values.put(name, total == null ? value : total + value);
+                scheduleFlush();
+                return;
+            }
+        }
+        sink.addOutcomeWithValue(name, value);
+    }
+
+    public void addUniqueOutcome(String name) {
+        synchronized (this) {
+            if (flushIntervalMs > 0 && !sentUnique.add(name)) {
+                return;
+            }
+        }
+        if (!sink.addUniqueOutcome(name)) {
+            synchronized (this) {
+                sentUnique.remove(name);
+            }
+        }
+    }
+
+    /** Reports everything pending now */
+    public void flush() {
+        Map<String, Integer> flushedCounts;
+        Map<String, Double> flushedValues;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            if (counts.isEmpty() && values.isEmpty()) {
+                return;
+            }
+            flushedCounts = new LinkedHashMap<>(counts);
+            flushedValues = new LinkedHashMap<>(values);
+            counts.clear();
+            values.clear();
+        }
+
+        // once a call fails the SDK is taken to be unavailable, and everything not yet sent is put back
+        boolean failed = false;
+        for (Map.Entry<String, Integer> entry : flushedCounts.entrySet()) {
+            int sent = 0;
+            while (!failed && sent < entry.getValue()) {
+                if (sink.addOutcome(entry.getKey())) {
+                    sent++;
+                } else {
+                    failed = true;
+                }
+            }
+            entry.setValue(entry.getValue() - sent);
+        }
+        for (Map.Entry<String, Double> entry : flushedValues.entrySet()) {
+            if (!failed && sink.addOutcomeWithValue(entry.getKey(), entry.getValue().floatValue())) {
+                entry.setValue(0d);
+            } else {
+                failed = true;
+            }
+        }
+        if (failed) {
+            restore(flushedCounts, flushedValues);
+        }
+    }
+
+    public void onBackground() {
+        boolean flush;
+        synchronized (this) {
+            backgroundedAt = System.currentTimeMillis();
+            flush = flushOnBackground;
+        }
+        if (flush) {
+            flush();
+        }
+    }
+
+    public synchronized void onForeground() {
+        if (backgroundedAt != 0 && System.currentTimeMillis() - backgroundedAt >= SESSION_TIMEOUT_MS) {
+            // a new session starts, so unique outcomes count again
+            sentUnique.clear();
+        }
+        backgroundedAt = 0;
+    }
+
+    /** Adds what a flush couldn't send back to the pending outcomes, to go out with the next flush */
+    private synchronized void restore(Map<String, Integer> unsentCounts, Map<String, Double> unsentValues) {
+        for (Map.Entry<String, Integer> entry : unsentCounts.entrySet()) {
+            if (entry.getValue() > 0) {
+                Integer count = counts.get(entry.getKey());
+                counts.put(entry.getKey(), count == null ? entry.getValue() : count + entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Double> entry : unsentValues.entrySet()) {
+            if (entry.getValue() != 0) {
+                Double total = values.get(entry.getKey());
+                values.put(entry.getKey(), total == null ? entry.getValue() : total + entry.getValue());
+            }
+        }
+        if (flushIntervalMs > 0) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (scheduledFlush == null) {
+            // on the action executor, like the outcome calls JS makes directly, not the scheduler thread
+            scheduledFlush = PluginScheduler.scheduleAction(this::flush, flushIntervalMs);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.onesignal.cordova;
+
+import com.onesignal.inAppMessages.IInAppMessage;
+import com.onesignal.inAppMessages.IInAppMessageClickEvent;
+import com.onesignal.inAppMessages.IInAppMessageClickResult;
+import com.onesignal.notifications.INotification;
+import com.onesignal.notifications.INotificationClickEvent;
+import com.onesignal.notifications.INotificationClickResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Writes notification and click event payloads straight to JSON text, skipping the JSONObject tree that
+ * {@link OneSignalSerializer} builds and PluginResult then stringifies again.
+ *
+ * Output is byte-for-byte what {@code OneSignalSerializer.serializeX(...).toString()} produces with Android's
+ * org.json: keys in insertion order, null values omitted, '/' escaped, and non-JSON values such as the action button
+ * list written as their quoted toString(). Send the result with {@link CallbackHelper#callbackSuccessEncoded}.
+ *
+ * Each thread reuses one StringBuilder, so an event costs the final String plus whatever the SDK getters allocate.
+ */
+public class PayloadEncoder {
+    /** Builders that grew past this, e.g. for a huge rawPayload, are dropped instead of being held per thread */
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<StringBuilder> buffers = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(1024);
+        }
+    };
+
+    private final StringBuilder out;
+    private boolean first;
+
+    private PayloadEncoder(StringBuilder out) {
+        this.out = out;
+    }
+
+    public static String encodeNotification(INotification notification, int fields) throws JSONException {
+        PayloadEncoder encoder = acquire();
+        try {
+            encoder.writeNotification(notification, fields);
+            return encoder.out.toString();
+        } finally {
+            encoder.release();
+        }
+    }
+
+    public static String encodeNotificationClickEvent(INotificationClickEvent event, int notificationFields)
+            throws JSONException {
+        PayloadEncoder encoder = acquire();
+        try {
+            encoder.writeNotificationClickEvent(event, null, notificationFields);
+            return encoder.out.toString();
+        } finally {
+            encoder.release();
+        }
+    }
+
+    /** Like {@link #encodeNotificationClickEvent(INotificationClickEvent, int)}, reusing an encoded notification */
+    public static String encodeNotificationClickEvent(INotificationClickEvent event, String encodedNotification)
+            throws JSONException {
+        PayloadEncoder encoder = acquire();
+        try {
+            encoder.writeNotificationClickEvent(event, encodedNotification, 0);
+            return encoder.out.toString();
+        } finally {
+            encoder.release();
+        }
+    }
+
+    public static String encodeInAppMessageClickEvent(IInAppMessageClickEvent event) throws JSONException {
+        PayloadEncoder encoder = acquire();
+        try {
+            IInAppMessageClickResult result = event.getResult();
+            IInAppMessage message = event.getMessage();
+
+            encoder.beginObject();
+            encoder.name("result");
+            encoder.beginObject();
+            encoder.field("actionId", result.getActionId());
+            encoder.field("urlTarget", result.getUrlTarget());
+            encoder.field("url", result.getUrl());
+            encoder.field("closingMessage", result.getClosingMessage());
+            encoder.endObject();
+            encoder.name("message");
+            encoder.beginObject();
+            encoder.field("messageId", message.getMessageId());
+            encoder.endObject();
+            encoder.endObject();
+            return encoder.out.toString();
+        } finally {
+            encoder.release();
+        }
+    }
+
+    private static PayloadEncoder acquire() {
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        return new PayloadEncoder(buffer);
+    }
+
+    private void release() {
+        if (out.capacity() > MAX_POOLED_CAPACITY) {
+            buffers.remove();
+        }
+    }
+
+    /** Writes encodedNotification as the notification if it isn't null, otherwise encodes it with the given fields */
+    private void writeNotificationClickEvent(INotificationClickEvent event, String encodedNotification, int fields)
+            throws JSONException {
+        INotificationClickResult clickResult = event.getResult();
+
+        beginObject();
+        name("notification");
+        if (encodedNotification != null) {
+            out.append(encodedNotification);
+            first = false;
+        } else {
+            writeNotification(event.getNotification(), fields);
+        }
+        name("result");
+        beginObject();
+        field("actionId", clickResult.getActionId());
+        field("url", clickResult.getUrl());
+        endObject();
+        endObject();
+    }
+
+    /** Mirrors {@link OneSignalSerializer#serializeNotification(INotification, int)} field for field */
+    private void writeNotification(INotification notification, int fields) throws JSONException {
+        beginObject();
+        if ((fields & OneSignalSerializer.FIELD_BODY) != 0) {
+            field("body", notification.getBody());
+        }
+        if ((fields & OneSignalSerializer.FIELD_SOUND) != 0) {
+            field("sound", notification.getSound());
+        }
+        if ((fields & OneSignalSerializer.FIELD_TITLE) != 0) {
+            field("title", notification.getTitle());
+        }
+        if ((fields & OneSignalSerializer.FIELD_LAUNCH_URL) != 0) {
+            field("launchURL", notification.getLaunchURL());
+        }
+        if ((fields & OneSignalSerializer.FIELD_RAW_PAYLOAD) != 0) {
+            field("rawPayload", notification.getRawPayload());
+        }
+        if ((fields & OneSignalSerializer.FIELD_ACTION_BUTTONS) != 0) {
+            field("actionButtons", notification.getActionButtons());
+        }
+        if ((fields & OneSignalSerializer.FIELD_ADDITIONAL_DATA) != 0) {
+            field("additionalData", notification.getAdditionalData());
+        }
+        if ((fields & OneSignalSerializer.FIELD_NOTIFICATION_ID) != 0) {
+            field("notificationId", notification.getNotificationId());
+        }
+        if ((fields & OneSignalSerializer.FIELD_GROUP_KEY) != 0) {
+            field("groupKey", notification.getGroupKey());
+        }
+        if ((fields & OneSignalSerializer.FIELD_GROUP_MESSAGE) != 0) {
+            field("groupMessage", notification.getGroupMessage());
+        }
+        if ((fields & OneSignalSerializer.FIELD_GROUPED_NOTIFICATIONS) != 0) {
+            field("groupedNotifications", notification.getGroupedNotifications());
+        }
+        if ((fields & OneSignalSerializer.FIELD_LED_COLOR) != 0) {
+            field("ledColor", notification.getLedColor());
+        }
+        if ((fields & OneSignalSerializer.FIELD_PRIORITY) != 0) {
+            field("priority", notification.getPriority());
+        }
+        if ((fields & OneSignalSerializer.FIELD_SMALL_ICON) != 0) {
+            field("smallIcon", notification.getSmallIcon());
+        }
+        if ((fields & OneSignalSerializer.FIELD_LARGE_ICON) != 0) {
+            field("largeIcon", notification.getLargeIcon());
+        }
+        if ((fields & OneSignalSerializer.FIELD_BIG_PICTURE) != 0) {
+            field("bigPicture", notification.getBigPicture());
+        }
+        if ((fields & OneSignalSerializer.FIELD_COLLAPSE_ID) != 0) {
+            field("collapseId", notification.getCollapseId());
+        }
+        if ((fields & OneSignalSerializer.FIELD_FROM_PROJECT_NUMBER) != 0) {
+            field("fromProjectNumber", notification.getFromProjectNumber());
+        }
+        if ((fields & OneSignalSerializer.FIELD_SMALL_ICON_ACCENT_COLOR) != 0) {
+            field("smallIconAccentColor", notification.getSmallIconAccentColor());
+        }
+        if ((fields & OneSignalSerializer.FIELD_LOCK_SCREEN_VISIBILITY) != 0) {
+            field("lockScreenVisibility", notification.getLockScreenVisibility());
+        }
+        if ((fields & OneSignalSerializer.FIELD_ANDROID_NOTIFICATION_ID) != 0) {
+            field("androidNotificationId", notification.getAndroidNotificationId());
+        }
+        endObject();
+    }
+
+    private void beginObject() {
+        out.append('{');
+        first = true;
+    }
+
+    private void endObject() {
+        out.append('}');
+        // a closed object is always a member of its parent, so the parent's next member needs a comma
+        first = false;
+    }
+
+    private void name(String name) {
+        if (!first) {
+            out.append(',');
+        }
+        first = false;
+        string(name);
+        out.append(':');
+    }
+
+    private void field(String name, int value) {
+        name(name);
+        out.append(value);
+    }
+
+    private void field(String name, boolean value) {
+        name(name);
+        out.append(value);
+    }
+
+    /** Like JSONObject.put, a null value leaves the key out */
+    private void field(String name, Object value) throws JSONException {
+        if (value == null) {
+            return;
+        }
+        name(name);
+        if (value instanceof String) {
+            string((String) value);
+        } else if (value instanceof JSONObject || value instanceof JSONArray || value == JSONObject.NULL) {
+            out.append(value.toString());
+        } else if (value instanceof Number) {
+            out.append(JSONObject.numberToString((Number) value));
+        } else if (value instanceof Boolean) {
+            out.append(value);
+        } else {
+            // org.json writes other objects, e.g. List<IActionButton>, as their quoted toString()
+            string(value.toString());
+        }
+    }
+
+    /** Same escaping as Android's JSONStringer */
+    private void string(String value) {
+        out.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append('\\').append(c);
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                default:
+                    if (c <= 0x1F) {
+                        out.append("\\u00");
+                        out.append(HEX_DIGITS[c >> 4]);
+                        out.append(HEX_DIGITS[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+                    break;
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,80 @@
+package com.onesignal.cordova;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bounded FIFO of event payloads that fired before JS registered a callback for them, e.g. a notification click that
+ * cold-starts the app while the JS bundle is still loading. Payloads are held as encoded JSON text.
+ *
+ * Not thread-safe on its own; {@link EventCallbackRegistry} guards each buffer with its monitor.
+ */
+public class PendingEventBuffer {
+    public enum DropPolicy {
+        /** When full, the oldest buffered event is dropped to make room */
+        DROP_OLDEST,
+        /** When full, new events are dropped */
+        DROP_NEWEST;
+
+        public static DropPolicy fromString(String value) {
+            return "dropNewest".equalsIgnoreCase(value) ? DROP_NEWEST : DROP_OLDEST;
+        }
+
+        @Override
+        public String toString() {
+            return this == DROP_NEWEST ? "dropNewest" : "dropOldest";
+        }
+    }
+
+    private final ArrayDeque<String> events = new ArrayDeque<>();
+    private int capacity;
+    private DropPolicy dropPolicy;
+    private long droppedCount;
+
+    public PendingEventBuffer(int capacity, DropPolicy dropPolicy) {
+        this.capacity = capacity;
+        this.dropPolicy = dropPolicy;
+    }
+
+    public void configure(int capacity, DropPolicy dropPolicy) {
+        this.capacity = capacity;
+        this.dropPolicy = dropPolicy;
+        while (events.size() > Math.max(capacity, 0)) {
+            events.pollFirst();
+            droppedCount++;
+        }
+    }
+
+    /** Returns false if the event was dropped */
+    public boolean add(String event) {
+        if (capacity <= 0) {
+            droppedCount++;
+            return false;
+        }
+        if (events.size() >= capacity) {
+            droppedCount++;
+            if (dropPolicy == DropPolicy.DROP_NEWEST) {
+                return false;
+            }
+            events.pollFirst();
+        }
+        events.addLast(event);
+        return true;
+    }
+
+    /** Removes and returns all buffered events, oldest first */
+    public List<String> drain() {
+        List<String> drained = new ArrayList<>(events);
+        events.clear();
+        return drained;
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
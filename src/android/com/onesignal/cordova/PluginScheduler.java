@@ -0,0 +1,45 @@
+package com.onesignal.cordova;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The plugin's two background threads. The scheduler is one daemon thread shared by delayed work: coalescing windows,
+ * queue pacing and decision deadlines. Its tasks should be short; anything that calls into the SDK belongs on the
+ * action executor.
+ */
+public class PluginScheduler {
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OneSignalCordova-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Runs {@link ActionRegistry#RUN_IN_BACKGROUND} actions one at a time, in the order JS issued them, so slow SDK
+     * calls don't stall the WebCore thread that every plugin's bridge traffic goes through. A single thread keeps
+     * dependent sequences such as login followed by addTags in order.
+     */
+    private static final ExecutorService actionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OneSignalCordova-actions");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static ScheduledFuture<?> schedule(Runnable task, long delayMs) {
+        return scheduler.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Queues the task on the action executor, behind the actions already waiting there */
+    public static void executeAction(Runnable task) {
+        actionExecutor.execute(task);
+    }
+
+    /** Queues the task on the action executor once the delay has passed */
+    public static ScheduledFuture<?> scheduleAction(Runnable task, long delayMs) {
+        return scheduler.schedule(() -> actionExecutor.execute(task), delayMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,60 @@
+package com.onesignal.cordova;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Wall-clock duration of each phase of plugin initialization, in the order the phases ran.
+ */
+public class StartupTimings {
+    public static final String WRAPPER_SETUP = "wrapperSetup";
+    public static final String QUEUE_WAIT = "queueWait";
+    public static final String INIT_WITH_CONTEXT = "initWithContext";
+    public static final String LISTENER_REGISTRATION = "listenerRegistration";
+
+    private final LinkedHashMap<String, Long> phaseNanos = new LinkedHashMap<>();
+    private String mode;
+    private long startNanos;
+    private long finishNanos;
+
+    public synchronized void start(String mode) {
+        this.mode = mode;
+        phaseNanos.clear();
+        startNanos = System.nanoTime();
+        finishNanos = 0;
+    }
+
+    /** Records a phase that began at startNanos (from System.nanoTime()) and ended now; returns now */
+    public synchronized long record(String phase, long startNanos) {
+        long now = System.nanoTime();
+        phaseNanos.put(phase, now - startNanos);
+        return now;
+    }
+
+    public synchronized void finish() {
+        finishNanos = System.nanoTime();
+    }
+
+    public synchronized boolean isFinished() {
+        return finishNanos != 0;
+    }
+
+    public synchronized JSONObject toJSON() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("mode", mode == null ? JSONObject.NULL : mode);
+        json.put("finished", finishNanos != 0);
+
+        JSONObject phases = new JSONObject();
+        for (Map.Entry<String, Long> phase : phaseNanos.entrySet()) {
+            phases.put(phase.getKey(), phase.getValue() / 1_000_000.0);
+        }
+        json.put("phasesMs", phases);
+
+        if (finishNanos != 0) {
+            json.put("totalMs", (finishNanos - startNanos) / 1_000_000.0);
+        }
+        return json;
+    }
+}
@@ -0,0 +1,334 @@
+package com.onesignal.cordova;
+
+import com.onesignal.debug.internal.logging.Logging;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Accepts custom events without converting them and forwards them to the {@link Sink} in batches on its own thread.
+ *
+ * Events wait in memory up to a capacity. Past it, the queue spills: that event and every later one are appended to a
+ * file instead, one JSON array per line, until the drain has caught up with the file. Events therefore reach the sink
+ * in the order they were accepted. A spill file left over from a previous process is replayed before anything new.
+ * Delivery is at least once: an event replayed from disk when the process died mid-replay is sent again.
+ *
+ * Nothing is sent before {@link #start()}, so events tracked before the SDK is initialized wait instead of failing.
+ */
+public class TrackEventQueue {
+    public interface Sink {
+        /**
+         * Called on the queue's thread; properties may be null. A failure is reported to the event's callback if it
+         * was still held in memory; events that went through the spill file have no callback left to report to.
+         */
+        void track(String name, JSONObject properties) throws Exception;
+    }
+
+    public static final int DEFAULT_CAPACITY = 500;
+
+    /** Events sent per pass before the lock is taken again, so accepting is never blocked for long */
+    private static final int BATCH_SIZE = 50;
+
+    private static final long FLUSH_TIMEOUT_MS = 5000;
+
+    private static final ExecutorService drainExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "OneSignalCordova-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static class Event {
+        final String name;
+        final JSONObject properties;
+        final CallbackContext callbackContext;
+
+        Event(String name, JSONObject properties, CallbackContext callbackContext) {
+            this.name = name;
+            this.properties = properties;
+            this.callbackContext = callbackContext;
+        }
+    }
+
+    private final Sink sink;
+
+    /** Events appended while spilling */
+    private final File spillFile;
+
+    /** A spill file taken over by the drain; only the drain thread touches it */
+    private final File replayFile;
+
+    // guarded by this
+    private final ArrayDeque<Event> memory = new ArrayDeque<>();
+    private int capacity = DEFAULT_CAPACITY;
+    private boolean spilling;
+    private Writer spillWriter;
+    private boolean started;
+    private boolean drainScheduled;
+    private long spilledCount;
+
+    public TrackEventQueue(File directory, Sink sink) {
+        this.sink = sink;
+        this.spillFile = new File(directory, "onesignal_track_events.jsonl");
+        this.replayFile = new File(directory, "onesignal_track_events.replay.jsonl");
+        // anything left on disk is older than what this process will accept
+        this.spilling = spillFile.length() > 0 || replayFile.length() > 0;
+    }
+
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+    }
+
+    /** Starts forwarding, beginning with any events replayed from disk */
+    public synchronized void start() {
+        started = true;
+        scheduleDrain();
+    }
+
+    /** The callback, which may be null, only hears about failures */
+    public synchronized void accept(String name, JSONObject properties, CallbackContext callbackContext) {
+        if (!spilling && memory.size() >= capacity) {
+            spilling = true;
+        }
+        if (spilling) {
+            try {
+                spill(new Event(name, properties, null));
+            } catch (IOException e) {
+                // the disk is unavailable; keeping the event in memory beats dropping it
+                e.printStackTrace();
+                memory.add(new Event(name, properties, callbackContext));
+            }
+        } else {
+            memory.add(new Event(name, properties, callbackContext));
+        }
+        scheduleDrain();
+    }
+
+    /** Sends everything accepted so far before returning, e.g. before the user changes */
+    public void flush() {
+        synchronized (this) {
+            if (!started) {
+                return;
+            }
+        }
+        try {
+            drainExecutor.submit(this::drain).get(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Makes sure events survive the process being killed in the background: sends them if started, otherwise moves
+     * the ones in memory to the front of the spill file.
+     */
+    public synchronized void persist() {
+        if (started) {
+            scheduleDrain();
+            return;
+        }
+        if (memory.isEmpty()) {
+            return;
+        }
+        File tmp = new File(spillFile.getPath() + ".tmp");
+        try {
+            closeSpillWriter();
+            try (Writer writer = openWriter(tmp, false)) {
+                for (Event event : memory) {
+                    writeLine(writer, event);
+                }
+                if (spillFile.exists()) {
+                    try (BufferedReader reader = openReader(spillFile)) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            writer.write(line);
+                            writer.write('\n');
+                        }
+                    }
+                }
+            }
+            if (!tmp.renameTo(spillFile)) {
+                throw new IOException("Could not replace " + spillFile);
+            }
+            spilledCount += memory.size();
+            memory.clear();
+            spilling = true;
+        } catch (IOException | JSONException e) {
+            e.printStackTrace();
+            tmp.delete();
+        }
+    }
+
+    public synchronized int getQueuedCount() {
+        return memory.size();
+    }
+
+    /** Number of events that have been written to disk */
+    public synchronized long getSpilledCount() {
+        return spilledCount;
+    }
+
+    private void scheduleDrain() {
+        if (started && !drainScheduled) {
+            drainScheduled = true;
+            drainExecutor.execute(this::drain);
+        }
+    }
+
+    /** Runs on the drain thread */
+    private void drain() {
+        synchronized (this) {
+            drainScheduled = false;
+        }
+        while (true) {
+            // the replay file holds the oldest events, then memory, then whatever is still being spilled
+            if (replayFile.exists()) {
+                if (!replay()) {
+                    return;
+                }
+                continue;
+            }
+
+            List<Event> batch = new ArrayList<>(BATCH_SIZE);
+            synchronized (this) {
+                while (batch.size() < BATCH_SIZE && !memory.isEmpty()) {
+                    batch.add(memory.poll());
+                }
+                if (batch.isEmpty()) {
+                    if (!spilling) {
+                        return;
+                    }
+                    closeSpillWriter();
+                    if (spillFile.length() == 0) {
+                        spillFile.delete();
+                        spilling = false;
+                        return;
+                    }
+                    // new events keep spilling to a fresh file while this one is replayed
+                    if (!spillFile.renameTo(replayFile)) {
+                        Logging.error("Could not replay spilled events from " + spillFile, null);
+                        return;
+                    }
+                    continue;
+                }
+            }
+            for (Event event : batch) {
+                send(event.name, event.properties, event.callbackContext);
+            }
+        }
+    }
+
+    /** Sends every event in the replay file, then deletes it; false if it could not be deleted */
+    private boolean replay() {
+        try (BufferedReader reader = openReader(replayFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                try {
+                    JSONArray event = new JSONArray(line);
+                    send(event.getString(0), event.optJSONObject(1), null);
+                } catch (JSONException e) {
+                    // a line cut short by the process dying mid-write
+                    e.printStackTrace();
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (!replayFile.delete()) {
+            Logging.error("Could not delete replayed events in " + replayFile, null);
+            return false;
+        }
+        return true;
+    }
+
+    private void send(String name, JSONObject properties, CallbackContext callbackContext) {
+        try {
+            sink.track(name, properties);
+        } catch (Throwable t) {
+            Logging.error("Could not track event " + name, t);
+            if (callbackContext != null) {
+                CallbackHelper.callbackError(callbackContext, "Could not track event " + name + ": " + t.getMessage());
+            }
+        }
+    }
+
+    private void spill(Event event) throws IOException {
+        if (spillWriter == null) {
+            boolean endsMidLine = endsMidLine(spillFile);
+            spillWriter = openWriter(spillFile, true);
+            if (endsMidLine) {
+                // the last line was cut short by the process dying mid-write; don't run this event into it
+                spillWriter.write('\n');
+            }
+        }
+        try {
+            writeLine(spillWriter, event);
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+        spillWriter.flush();
+        spilledCount++;
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        spillWriter = null;
+    }
+
+    private static void writeLine(Writer writer, Event event) throws IOException, JSONException {
+        JSONArray line = new JSONArray();
+        line.put(event.name);
+        line.put(event.properties != null ? event.properties : JSONObject.NULL);
+        writer.write(line.toString());
+        writer.write('\n');
+    }
+
+    private static boolean endsMidLine(File file) throws IOException {
+        if (file.length() == 0) {
+            return false;
+        }
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            input.seek(input.length() - 1);
+            return input.read() != '\n';
+        }
+    }
+
+    private static Writer openWriter(File file, boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), StandardCharsets.UTF_8));
+    }
+
+    private static BufferedReader openReader(File file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,126 @@
+package com.onesignal.cordova;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A native copy of the in-app message triggers set through the plugin, so only real changes reach the {@link Sink}:
+ * setting a trigger to the value it already has, or removing one that is already gone, is skipped. Apps that set the
+ * same triggers on every screen change then pay for a map lookup instead of an SDK call.
+ *
+ * The SDK can't be asked for its triggers, so the mirror only knows what went through it. A key it has never seen may
+ * have been set natively and its removal is always forwarded; once {@link #clear()} or {@link #replace(Map)} has run,
+ * every key not added since is known to be absent. Like the SDK's triggers, the mirror only lives as long as the
+ * process.
+ */
+public class TriggerMirror {
+    public interface Sink {
+        void addTriggers(Map<String, String> triggers);
+
+        void removeTriggers(Collection<String> keys);
+
+        void clearTriggers();
+    }
+
+    private final Sink sink;
+
+    /** Known triggers; a key mapped to null is known to be absent */
+    private final Map<String, String> known = new HashMap<>();
+
+    /** Whether {@link #known} holds every trigger, so a missing key is known to be absent */
+    private boolean complete;
+
+    private long skippedCount;
+
+    public TriggerMirror(Sink sink) {
+        this.sink = sink;
+    }
+
+    /** Forwards the triggers whose value differs from the known one */
+    public synchronized void add(Map<String, String> triggers) {
+        Map<String, String> changed = new HashMap<>();
+        for (Map.Entry<String, String> trigger : triggers.entrySet()) {
+            if (trigger.getValue().equals(known.get(trigger.getKey()))) {
+                skippedCount++;
+            } else {
+                changed.put(trigger.getKey(), trigger.getValue());
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        sink.addTriggers(changed);
+        known.putAll(changed);
+    }
+
+    /** Forwards the removal of keys that may be set */
+    public synchronized void remove(Collection<String> keys) {
+        List<String> present = new ArrayList<>();
+        for (String key : keys) {
+            if (isAbsent(key)) {
+                skippedCount++;
+            } else {
+                present.add(key);
+            }
+        }
+        if (present.isEmpty()) {
+            return;
+        }
+        sink.removeTriggers(present);
+        for (String key : present) {
+            known.put(key, null);
+        }
+    }
+
+    /**
+     * Makes {@code triggers} the whole trigger set: changed values are added, then triggers not in the set are
+     * removed, so keys kept across the replace are never briefly missing. Until the mirror knows every trigger (see
+     * {@link #clear()}) it can't tell what to remove, so the first replace clears and adds instead.
+     */
+    public synchronized void replace(Map<String, String> triggers) {
+        if (!complete) {
+            sink.clearTriggers();
+            known.clear();
+            complete = true;
+            if (!triggers.isEmpty()) {
+                sink.addTriggers(triggers);
+                known.putAll(triggers);
+            }
+            return;
+        }
+
+        add(triggers);
+
+        List<String> stale = new ArrayList<>();
+        for (Map.Entry<String, String> trigger : known.entrySet()) {
+            if (trigger.getValue() != null && !triggers.containsKey(trigger.getKey())) {
+                stale.add(trigger.getKey());
+            }
+        }
+        if (!stale.isEmpty()) {
+            sink.removeTriggers(stale);
+            for (String key : stale) {
+                known.put(key, null);
+            }
+        }
+    }
+
+    /** Always forwarded, since triggers set outside the plugin may be cleared too */
+    public synchronized void clear() {
+        sink.clearTriggers();
+        known.clear();
+        complete = true;
+    }
+
+    /** Number of trigger writes skipped because they would not have changed anything */
+    public synchronized long getSkippedCount() {
+        return skippedCount;
+    }
+
+    private boolean isAbsent(String key) {
+        return known.containsKey(key) ? known.get(key) == null : complete;
+    }
+}
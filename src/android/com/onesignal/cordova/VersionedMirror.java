@@ -0,0 +1,190 @@
+package com.onesignal.cordova;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A native copy of a string map (e.g. tags) with a version counter, so JS can ask for only what changed since the
+ * version it last saw instead of receiving the whole map every time.
+ *
+ * Every change bumps the version and stamps the changed keys with it; removed keys are kept as tombstones so they can
+ * be reported too. Writes made through the plugin keep the mirror current on their own, so a delta is served without
+ * reading the source of truth. {@link #sync(Map)} reconciles with it, which also picks up changes made outside the
+ * plugin; {@link #needsSync} says when that is worth its cost. A version older than the last {@link #reset()}, or than
+ * the last time tombstones were pruned, gets a full snapshot instead of a delta.
+ */
+public class VersionedMirror {
+    /** Past this many removed keys the tombstones are dropped and older versions fall back to a full snapshot */
+    public static final int MAX_TOMBSTONES = 1000;
+
+    private final Map<String, String> values = new HashMap<>();
+
+    /** Version each key last changed at; removed keys stay here as tombstones */
+    private final Map<String, Long> changedAt = new HashMap<>();
+
+    private int tombstones;
+    private boolean loaded;
+    private long syncedAtMs;
+
+    /** Versions only live as long as the process, like the JS that holds them */
+    private long version;
+
+    /** Deltas can only be computed for versions at or after this one */
+    private long baseVersion;
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /** Records values written through the plugin; ignored until the mirror is loaded by {@link #sync(Map)} */
+    public synchronized void put(Map<String, String> written) {
+        if (!loaded) {
+            return;
+        }
+        boolean bumped = false;
+        for (Map.Entry<String, String> entry : written.entrySet()) {
+            if (!entry.getValue().equals(values.get(entry.getKey()))) {
+                if (!bumped) {
+                    version++;
+                    bumped = true;
+                }
+                set(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /** Records keys removed through the plugin; ignored until the mirror is loaded by {@link #sync(Map)} */
+    public synchronized void remove(Collection<String> keys) {
+        if (!loaded) {
+            return;
+        }
+        boolean bumped = false;
+        for (String key : keys) {
+            if (values.containsKey(key)) {
+                if (!bumped) {
+                    version++;
+                    bumped = true;
+                }
+                set(key, null);
+            }
+        }
+        pruneTombstones();
+    }
+
+    /**
+     * Whether {@link #sync(Map)} should run before answering {@code sinceVersion}: the mirror hasn't been loaded since
+     * the last reset, the answer would be a full snapshot anyway, or the last sync is more than {@code maxAgeMs} old
+     * and may have missed changes made outside the plugin.
+     */
+    public synchronized boolean needsSync(long sinceVersion, long maxAgeMs) {
+        return !canDiff(sinceVersion) || System.currentTimeMillis() - syncedAtMs >= maxAgeMs;
+    }
+
+    /** Makes the mirror match {@code current}, bumping the version if anything differs */
+    public synchronized void sync(Map<String, String> current) {
+        syncedAtMs = System.currentTimeMillis();
+        if (!loaded) {
+            version++;
+            baseVersion = version;
+            values.putAll(current);
+            for (String key : current.keySet()) {
+                changedAt.put(key, version);
+            }
+            loaded = true;
+            return;
+        }
+
+        long next = version + 1;
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            if (!entry.getValue().equals(values.get(entry.getKey()))) {
+                version = next;
+                set(entry.getKey(), entry.getValue());
+            }
+        }
+        if (values.size() > current.size()) {
+            Object[] keys = values.keySet().toArray();
+            for (Object key : keys) {
+                if (!current.containsKey(key)) {
+                    version = next;
+                    set((String) key, null);
+                }
+            }
+        }
+        pruneTombstones();
+    }
+
+    /** Forgets everything, e.g. when the user changes; the next {@link #sync(Map)} reloads */
+    public synchronized void reset() {
+        values.clear();
+        changedAt.clear();
+        tombstones = 0;
+        loaded = false;
+    }
+
+    /**
+     * Returns {@code {version, full: false, changed, removed}} with the keys changed after {@code sinceVersion}, or
+     * {@code {version, full: true, values}} when that version can't be diffed against.
+     */
+    public synchronized JSONObject changesSince(long sinceVersion) throws JSONException {
+        JSONObject result = new JSONObject();
+        result.put("version", version);
+
+        if (!canDiff(sinceVersion)) {
+            result.put("full", true);
+            result.put("values", new JSONObject(values));
+            return result;
+        }
+
+        JSONObject changed = new JSONObject();
+        JSONArray removed = new JSONArray();
+        if (sinceVersion < version) {
+            for (Map.Entry<String, Long> entry : changedAt.entrySet()) {
+                if (entry.getValue() <= sinceVersion) {
+                    continue;
+                }
+                String value = values.get(entry.getKey());
+                if (value != null) {
+                    changed.put(entry.getKey(), value);
+                } else {
+                    removed.put(entry.getKey());
+                }
+            }
+        }
+        result.put("full", false);
+        result.put("changed", changed);
+        result.put("removed", removed);
+        return result;
+    }
+
+    private boolean canDiff(long sinceVersion) {
+        return loaded && sinceVersion >= baseVersion && sinceVersion <= version;
+    }
+
+    /** Sets or, for a null value, removes a key at the current version */
+    private void set(String key, String value) {
+        boolean wasPresent = values.containsKey(key);
+        if (value != null) {
+            values.put(key, value);
+            if (!wasPresent && changedAt.containsKey(key)) {
+                tombstones--;
+            }
+        } else {
+            values.remove(key);
+            tombstones++;
+        }
+        changedAt.put(key, version);
+    }
+
+    private void pruneTombstones() {
+        if (tombstones <= MAX_TOMBSTONES) {
+            return;
+        }
+        changedAt.keySet().retainAll(values.keySet());
+        tombstones = 0;
+        baseVersion = version;
+    }
+}
@@ -0,0 +1,282 @@
+package com.onesignal.cordova;
+
+import com.onesignal.notifications.INotificationWillDisplayEvent;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Holds foreground will-display events while JS decides whether to display, prevent or discard them.
+ *
+ * The OneSignal SDK only waits ~30 seconds for a foreground lifecycle decision, so entries older than that are of no
+ * use to anyone and are evicted. The store is also capped in size so a burst of notifications can never pin an
+ * unbounded number of payloads on the heap.
+ *
+ * With a decision deadline set, an event JS hasn't answered in time (a busy WebView, a handler that threw) is resolved
+ * natively instead, by displaying or discarding it. How long JS takes to answer is recorded in {@link BridgeMetrics}
+ * under decisions, with auto-resolved events counted as errors, so the deadline can be tuned from real data.
+ *
+ * Events are added from OneSignal SDK threads and resolved from Cordova's WebCore thread. Lookups go through a
+ * {@link ConcurrentHashMap} and per-event decisions are recorded with compare-and-set; only the arrival order kept for
+ * expiry and eviction sits behind a short lock. A resolved event is unlinked from both right away, so it doesn't stay
+ * on the heap until the next event arrives.
+ */
+public class WillDisplayEventStore {
+    public static final long DEFAULT_TTL_MS = 30_000;
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final int PREVENTED = 1;
+    private static final int DISCARDED = 1 << 1;
+    private static final int PROCEEDED = 1 << 2;
+    private static final int TIMED_OUT = 1 << 3;
+
+    private static class Entry {
+        final String notificationId;
+        final INotificationWillDisplayEvent event;
+        final long arrivedAtMs;
+        final long arrivedAtNanos;
+        final AtomicInteger state = new AtomicInteger();
+
+        Entry(String notificationId, INotificationWillDisplayEvent event, long arrivedAtMs, long now) {
+            this.notificationId = notificationId;
+            this.event = event;
+            this.arrivedAtMs = arrivedAtMs;
+            this.arrivedAtNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(Math.max(now - arrivedAtMs, 0));
+        }
+
+        /** Adds the flags and returns the state from before */
+        int addState(int flags) {
+            int current;
+            do {
+                current = state.get();
+            } while (!state.compareAndSet(current, current | flags));
+            if (current == 0) {
+                // JS's first answer to this event
+                BridgeMetrics.recordDecision(DECISION, System.nanoTime() - arrivedAtNanos, false);
+            }
+            return current;
+        }
+    }
+
+    private static final String DECISION = EventCallbackRegistry.NOTIFICATION_WILL_DISPLAY;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /** Unresolved entries by id in insertion order, for TTL expiry and capacity eviction; guarded by itself */
+    private final LinkedHashMap<String, Entry> order = new LinkedHashMap<>();
+    private final int capacity;
+    private final long ttlMs;
+
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong autoDisplayedCount = new AtomicLong();
+    private final AtomicLong autoDiscardedCount = new AtomicLong();
+
+    private volatile long decisionDeadlineMs;
+    private volatile boolean displayOnDeadline = true;
+
+    public WillDisplayEventStore() {
+        this(DEFAULT_CAPACITY, DEFAULT_TTL_MS);
+    }
+
+    public WillDisplayEventStore(int capacity, long ttlMs) {
+        this.capacity = capacity;
+        this.ttlMs = ttlMs;
+    }
+
+    /**
+     * Sets how long JS has to answer an event before it is displayed or, if {@code display} is false, discarded
+     * without it; 0 waits until the event expires. Applies to events added from now on.
+     */
+    public void setDecisionDeadline(long deadlineMs, boolean display) {
+        decisionDeadlineMs = Math.max(deadlineMs, 0);
+        displayOnDeadline = display;
+    }
+
+    public long getDecisionDeadlineMs() {
+        return decisionDeadlineMs;
+    }
+
+    public boolean getDisplayOnDeadline() {
+        return displayOnDeadline;
+    }
+
+    /**
+     * Stores an event JS is about to be asked about. {@code arrivedAtMs} is when the SDK raised it, which may be a
+     * while ago if it waited in the foreground queue; its expiry and decision deadline count from there.
+     */
+    public void put(String notificationId, INotificationWillDisplayEvent event, long arrivedAtMs) {
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(notificationId, event, arrivedAtMs, now);
+        synchronized (order) {
+            // inside the lock, so an unlink racing with this always finds the entry in order too
+            entries.put(notificationId, entry);
+            // a replaced entry's place in line goes with it
+            order.remove(notificationId);
+            order.put(notificationId, entry);
+        }
+        trim(now);
+
+        long deadlineMs = decisionDeadlineMs;
+        // an event that waited past the display window was expired by trim; there is nothing left to resolve
+        if (deadlineMs > 0 && entries.get(notificationId) == entry) {
+            boolean display = displayOnDeadline;
+            long remainingMs = Math.max(arrivedAtMs + deadlineMs - now, 0);
+            PluginScheduler.schedule(() -> resolveUnanswered(entry, display), remainingMs);
+        }
+    }
+
+    /** Returns the pending event, or null if it was never stored, already resolved or has expired */
+    public INotificationWillDisplayEvent get(String notificationId) {
+        Entry entry = entries.get(notificationId);
+        if (entry == null) {
+            return null;
+        }
+        if (isExpired(entry, System.currentTimeMillis())) {
+            if (unlink(entry)) {
+                expiredCount.incrementAndGet();
+            }
+            return null;
+        }
+        return entry.event;
+    }
+
+    /**
+     * Records that JS called preventDefault. A discarded event is resolved and removed once JS has also proceeded;
+     * a non-discarded one stays so it can still be displayed later within the display window.
+     */
+    public void markPrevented(String notificationId, boolean discard) {
+        Entry entry = entries.get(notificationId);
+        if (entry == null) {
+            return;
+        }
+        int flags = discard ? PREVENTED | DISCARDED : PREVENTED;
+        int state = entry.addState(flags) | flags;
+        if ((state & TIMED_OUT) != 0) {
+            return;
+        }
+        if ((state & DISCARDED) != 0 && (state & PROCEEDED) != 0) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Records that the JS foreground handlers have run. Returns true if the notification should now be displayed,
+     * in which case the event is resolved and removed.
+     */
+    public boolean markProceeded(String notificationId) {
+        Entry entry = entries.get(notificationId);
+        if (entry == null) {
+            return false;
+        }
+        int state = entry.addState(PROCEEDED) | PROCEEDED;
+        if ((state & TIMED_OUT) != 0) {
+            // already resolved at the deadline
+            return false;
+        }
+        boolean prevented = (state & PREVENTED) != 0;
+        if (!prevented || (state & DISCARDED) != 0) {
+            unlink(entry);
+        }
+        return !prevented;
+    }
+
+    /** Takes the event for JS to display; null if there is none or it was already resolved at the deadline */
+    public INotificationWillDisplayEvent remove(String notificationId) {
+        Entry entry = entries.get(notificationId);
+        if (entry == null || !unlink(entry) || (entry.addState(PROCEEDED) & TIMED_OUT) != 0) {
+            return null;
+        }
+        return entry.event;
+    }
+
+    /** Drops an event JS was never asked about, e.g. because its listener went away */
+    public void cancel(String notificationId) {
+        Entry entry = entries.get(notificationId);
+        if (entry != null && unlink(entry)) {
+            entry.state.compareAndSet(0, TIMED_OUT);
+        }
+    }
+
+    public int size() {
+        trim(System.currentTimeMillis());
+        return entries.size();
+    }
+
+    public void clear() {
+        entries.clear();
+        synchronized (order) {
+            order.clear();
+        }
+    }
+
+    public JSONObject getStats() throws JSONException {
+        trim(System.currentTimeMillis());
+        JSONObject stats = new JSONObject();
+        stats.put("size", entries.size());
+        stats.put("capacity", capacity);
+        stats.put("ttlMs", ttlMs);
+        stats.put("evicted", evictedCount.get());
+        stats.put("expired", expiredCount.get());
+        stats.put("decisionDeadlineMs", decisionDeadlineMs);
+        stats.put("autoDisplayed", autoDisplayedCount.get());
+        stats.put("autoDiscarded", autoDiscardedCount.get());
+        return stats;
+    }
+
+    /** Runs on the plugin scheduler at the deadline; does nothing if JS has answered in the meantime */
+    private void resolveUnanswered(Entry entry, boolean display) {
+        if (!entry.state.compareAndSet(0, TIMED_OUT)) {
+            return;
+        }
+        unlink(entry);
+        BridgeMetrics.recordDecision(DECISION, System.nanoTime() - entry.arrivedAtNanos, true);
+        if (display) {
+            autoDisplayedCount.incrementAndGet();
+            entry.event.getNotification().display();
+        } else {
+            autoDiscardedCount.incrementAndGet();
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.arrivedAtMs >= ttlMs;
+    }
+
+    /** Removes the entry from the store; false if it was already gone or replaced */
+    private boolean unlink(Entry entry) {
+        if (!entries.remove(entry.notificationId, entry)) {
+            return false;
+        }
+        synchronized (order) {
+            order.remove(entry.notificationId, entry);
+        }
+        return true;
+    }
+
+    private void trim(long now) {
+        synchronized (order) {
+            Iterator<Entry> oldestFirst = order.values().iterator();
+            while (oldestFirst.hasNext()) {
+                Entry head = oldestFirst.next();
+                if (isExpired(head, now)) {
+                    oldestFirst.remove();
+                    if (entries.remove(head.notificationId, head)) {
+                        expiredCount.incrementAndGet();
+                    }
+                } else if (entries.size() > capacity) {
+                    oldestFirst.remove();
+                    if (entries.remove(head.notificationId, head)) {
+                        evictedCount.incrementAndGet();
+                    }
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.onesignal.cordova;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Merges key/value writes (e.g. tags) made close together into one net add and one net remove.
+ *
+ * While enabled, adds and removes are recorded per key, with the last write to a key winning. The buffer is flushed
+ * on the action executor after the flush interval or as soon as it holds the maximum number of keys, or on demand.
+ * At flush, writes that would not change anything are dropped: setting a key to the value the buffer last wrote for
+ * it, or removing a key the buffer last removed. Only the buffer's own writes count; a key it hasn't written may have
+ * been changed elsewhere (by the server after login, or natively) and is always forwarded. Call {@link #reset()} when
+ * the underlying data changes wholesale, e.g. on login or logout.
+ *
+ * The {@link Sink} is called outside the buffer's lock, so writers never wait on the SDK, and one flush at a time, so
+ * writes reach it in the order they were made.
+ *
+ * Disabled (a flush interval of 0, the default), nothing is held or merged: each write goes straight to the
+ * {@link Sink}, still minus the keys it wouldn't change.
+ */
+public class WriteCombiningBuffer {
+    public interface Sink {
+        /**
+         * Receives the net changes of one flush; either collection may be empty but not both. Returns false if the
+         * write failed, so the buffer doesn't treat the values as written and the next identical write is sent again.
+         */
+        boolean write(Map<String, String> additions, Collection<String> removals);
+    }
+
+    public static final int DEFAULT_MAX_PENDING_KEYS = 100;
+
+    private final Sink sink;
+
+    /** Held while a batch is drained and written, so batches reach the sink in order */
+    private final Object writeLock = new Object();
+
+    private long flushIntervalMs;
+    private int maxPendingKeys = DEFAULT_MAX_PENDING_KEYS;
+
+    /** Pending writes in arrival order; a null value is a removal */
+    private final LinkedHashMap<String, String> pending = new LinkedHashMap<>();
+
+    /** Values this buffer last wrote; a key mapped to null was last removed */
+    private final Map<String, String> written = new HashMap<>();
+
+    /** Bumped by {@link #reset()}, so a write that was in flight across it isn't recorded for the new user */
+    private int generation;
+
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean flushQueued;
+    private long droppedCount;
+
+    public WriteCombiningBuffer(Sink sink) {
+        this.sink = sink;
+    }
+
+    /** A flush interval of 0 disables combining and flushes anything pending */
+    public void configure(long flushIntervalMs, int maxPendingKeys) {
+        synchronized (writeLock) {
+            synchronized (this) {
+                this.flushIntervalMs = Math.max(flushIntervalMs, 0);
+                this.maxPendingKeys = maxPendingKeys > 0 ? maxPendingKeys : DEFAULT_MAX_PENDING_KEYS;
+                if (this.flushIntervalMs > 0) {
+                    return;
+                }
+            }
+            // still holding the write lock, so writes sent straight through from now on follow this batch
+            writeBatch();
+        }
+    }
+
+    public synchronized boolean isEnabled() {
+        return flushIntervalMs > 0;
+    }
+
+    public synchronized long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public synchronized int getMaxPendingKeys() {
+        return maxPendingKeys;
+    }
+
+    public void add(Map<String, String> values) {
+        synchronized (this) {
+            if (isEnabled()) {
+                pending.putAll(values);
+                afterWrite();
+                return;
+            }
+        }
+        writeThrough(values, Collections.<String>emptyList());
+    }
+
+    public void remove(Collection<String> keys) {
+        synchronized (this) {
+            if (isEnabled()) {
+                for (String key : keys) {
+                    pending.put(key, null);
+                }
+                afterWrite();
+                return;
+            }
+        }
+        writeThrough(Collections.<String, String>emptyMap(), keys);
+    }
+
+    /** Writes everything pending to the sink now, on the calling thread, as one net add and one net remove */
+    public void flush() {
+        synchronized (writeLock) {
+            writeBatch();
+        }
+    }
+
+    /** Discards pending writes and what the buffer knows it wrote; flush first to keep the writes */
+    public synchronized void reset() {
+        cancelScheduledFlush();
+        pending.clear();
+        written.clear();
+        generation++;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /** Number of writes dropped because they would not have changed anything */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /** Caller holds {@link #writeLock} */
+    private void writeBatch() {
+        Map<String, String> additions = new HashMap<>();
+        List<String> removals = new ArrayList<>();
+        int writeGeneration;
+        synchronized (this) {
+            writeGeneration = generation;
+            cancelScheduledFlush();
+            flushQueued = false;
+            for (Map.Entry<String, String> write : pending.entrySet()) {
+                collectChange(write.getKey(), write.getValue(), additions, removals);
+            }
+            pending.clear();
+        }
+        if (!additions.isEmpty() || !removals.isEmpty()) {
+            write(additions, removals, writeGeneration);
+        }
+    }
+
+    private void writeThrough(Map<String, String> values, Collection<String> keys) {
+        synchronized (writeLock) {
+            Map<String, String> additions = new HashMap<>();
+            List<String> removals = new ArrayList<>();
+            int writeGeneration;
+            synchronized (this) {
+                writeGeneration = generation;
+                for (Map.Entry<String, String> value : values.entrySet()) {
+                    collectChange(value.getKey(), value.getValue(), additions, removals);
+                }
+                for (String key : keys) {
+                    collectChange(key, null, additions, removals);
+                }
+            }
+            if (!additions.isEmpty() || !removals.isEmpty()) {
+                write(additions, removals, writeGeneration);
+            }
+        }
+    }
+
+    /** Sorts a write into additions or removals unless it repeats what was last written; a null value is a removal */
+    private void collectChange(String key, String value, Map<String, String> additions, List<String> removals) {
+        boolean noOp = value != null
+                ? value.equals(written.get(key))
+                : written.containsKey(key) && written.get(key) == null;
+        if (noOp) {
+            droppedCount++;
+        } else if (value != null) {
+            additions.put(key, value);
+        } else {
+            removals.add(key);
+        }
+    }
+
+    /**
+     * Caller holds {@link #writeLock}. Only a successful write counts as written; after a failed one the keys' values
+     * are unknown, so the next write to them is always sent.
+     */
+    private void write(Map<String, String> additions, Collection<String> removals, int writeGeneration) {
+        boolean succeeded = sink.write(additions, removals);
+        synchronized (this) {
+            if (writeGeneration != generation) {
+                return;
+            }
+            if (!succeeded) {
+                written.keySet().removeAll(additions.keySet());
+                written.keySet().removeAll(removals);
+                return;
+            }
+            written.putAll(additions);
+            for (String key : removals) {
+                written.put(key, null);
+            }
+        }
+    }
+
+    private void afterWrite() {
+        if (flushQueued) {
+            return;
+        }
+        if (pending.size() >= maxPendingKeys) {
+            cancelScheduledFlush();
+            flushQueued = true;
+            PluginScheduler.executeAction(this::flush);
+        } else if (scheduledFlush == null) {
+            scheduledFlush = PluginScheduler.scheduleAction(this::flush, flushIntervalMs);
+        }
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+}
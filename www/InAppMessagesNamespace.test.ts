@@ -221,6 +221,23 @@ describe('InAppMessages', () => {
     });
   });
 
+  describe('setTriggers', () => {
+    test('should call cordova.exec for setTriggers with stringified values', () => {
+      const triggers = { screen: 'home', visits: 3 };
+
+      // @ts-expect-error - we want to test the conversion of non-string values to JSON strings
+      inAppMessages.setTriggers(triggers);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setTriggers',
+        [{ screen: 'home', visits: '3' }],
+      );
+    });
+  });
+
   describe('removeTrigger', () => {
     test('should call cordova.exec for removeTrigger', () => {
       inAppMessages.removeTrigger('key');
@@ -9,6 +9,16 @@ import type {
   InAppMessageWillDisplayEvent,
 } from './types/InAppMessage';
 
+/** Forces trigger values to be string types */
+function stringifyTriggers(triggers: { [key: string]: string }): { [key: string]: string } {
+  Object.keys(triggers).forEach(function (key) {
+    if (typeof triggers[key] !== 'string') {
+      triggers[key] = JSON.stringify(triggers[key]);
+    }
+  });
+  return triggers;
+}
+
 export default class InAppMessages {
   private _inAppMessageClickListeners: ((action: InAppMessageClickEvent) => void)[] = [];
   private _willDisplayInAppMessageListeners: ((event: InAppMessageWillDisplayEvent) => void)[] = [];
@@ -163,14 +173,18 @@ export default class InAppMessages {
    */
 
   addTriggers(triggers: { [key: string]: string }): void {
-    Object.keys(triggers).forEach(function (key) {
-      // forces values to be string types
-      if (typeof triggers[key] !== 'string') {
-        triggers[key] = JSON.stringify(triggers[key]);
-      }
-    });
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'addTriggers', [stringifyTriggers(triggers)]);
+  }
 
-    window.cordova.exec(noop, noop, 'OneSignalPush', 'addTriggers', [triggers]);
+  /**
+   * Android only.
+   * Replaces all triggers with the ones provided in a single call. Only triggers that changed are added and only
+   * those no longer present are removed, so triggers kept across the replace are never briefly missing.
+   * @param  {[key: string]: string} triggers
+   * @returns void
+   */
+  setTriggers(triggers: { [key: string]: string }): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setTriggers', [stringifyTriggers(triggers)]);
   }
 
   /**
@@ -285,6 +285,58 @@ describe('Notifications', () => {
       expect(mockListener2).toHaveBeenCalledWith(true);
     });
 
+    test('should pass notification fields when registering native listeners', () => {
+      notifications.setNotificationFields(['notificationId', 'title', 'additionalData']);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setNotificationFields',
+        [['notificationId', 'title', 'additionalData']],
+      );
+
+      notifications.addEventListener('click', vi.fn());
+      notifications.addEventListener('foregroundWillDisplay', vi.fn());
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'addNotificationClickListener',
+        [['notificationId', 'title', 'additionalData']],
+      );
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'addForegroundLifecycleListener',
+        [['notificationId', 'title', 'additionalData']],
+      );
+    });
+
+    test('should restore all notification fields when cleared', () => {
+      notifications.setNotificationFields(['title']);
+      notifications.setNotificationFields();
+
+      expect(window.cordova.exec).toHaveBeenLastCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setNotificationFields',
+        [null],
+      );
+
+      notifications.addEventListener('click', vi.fn());
+      expect(window.cordova.exec).toHaveBeenLastCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'addNotificationClickListener',
+        [],
+      );
+    });
+
     test('should not add listener for unknown event type', () => {
       const mockListener = vi.fn();
       // @ts-expect-error - we want to test the addition of an unknown event type
@@ -414,6 +466,107 @@ describe('Notifications', () => {
     });
   });
 
+  describe('setForegroundDelivery', () => {
+    test('should call cordova.exec for setForegroundDelivery', () => {
+      const options = { maxPerSecond: 5, collapseBy: 'groupKey' as const, overflow: 'discard' as const };
+      notifications.setForegroundDelivery(options);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setForegroundDelivery',
+        [options],
+      );
+    });
+  });
+
+  describe('setWillDisplayDeadline', () => {
+    test('should call cordova.exec for setWillDisplayDeadline', () => {
+      notifications.setWillDisplayDeadline({ deadlineMs: 5000, action: 'discard' });
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setWillDisplayDeadline',
+        [{ deadlineMs: 5000, action: 'discard' }],
+      );
+    });
+  });
+
+  describe('getForegroundDeliveryStats', () => {
+    test('should resolve with the native stats', async () => {
+      const stats = { enabled: true, queued: 12, delivered: 9, collapsed: 2, dropped: 1, expired: 0 };
+      mockExec.mockImplementation((resolve) => {
+        resolve(stats);
+      });
+
+      await expect(notifications.getForegroundDeliveryStats()).resolves.toEqual(stats);
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'getForegroundDeliveryStats',
+        [],
+      );
+    });
+  });
+
+  describe('getWillDisplayEventStoreStats', () => {
+    test('should resolve with the native stats', async () => {
+      const stats = {
+        size: 1,
+        capacity: 64,
+        ttlMs: 30000,
+        evicted: 0,
+        expired: 2,
+        decisionDeadlineMs: 5000,
+        autoDisplayed: 3,
+        autoDiscarded: 0,
+      };
+      mockExec.mockImplementation((resolve) => {
+        resolve(stats);
+      });
+
+      await expect(notifications.getWillDisplayEventStoreStats()).resolves.toEqual(stats);
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'getWillDisplayEventStoreStats',
+        [],
+      );
+    });
+  });
+
+  describe('getNotificationPayloadCacheStats', () => {
+    test('should resolve with the native stats', async () => {
+      const stats = {
+        size: 2,
+        chars: 1840,
+        maxEntries: 32,
+        maxChars: 262144,
+        maxAgeMs: 300000,
+        hits: 5,
+        misses: 1,
+        evicted: 0,
+      };
+      mockExec.mockImplementation((resolve) => {
+        resolve(stats);
+      });
+
+      await expect(notifications.getNotificationPayloadCacheStats()).resolves.toEqual(stats);
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'getNotificationPayloadCacheStats',
+        [],
+      );
+    });
+  });
+
   describe('hasPermission (deprecated)', () => {
     test('should return false when _permission is undefined', () => {
       const result = notifications.hasPermission();
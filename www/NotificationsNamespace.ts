@@ -1,6 +1,6 @@
 import { noop, removeListener } from './helpers';
 import { NotificationWillDisplayEvent } from './NotificationReceivedEvent';
-import type { OSNotification } from './OSNotification';
+import type { NotificationField, OSNotification } from './OSNotification';
 import type {
   NotificationClickEvent,
   NotificationEventName,
@@ -15,6 +15,66 @@ export enum OSNotificationPermission {
   Ephemeral, // only available in iOS 14
 }
 
+/** Pacing for foreground will-display events, see {@link Notifications.setForegroundDelivery}. */
+export interface ForegroundDeliveryOptions {
+  /** Events sent to JS per second; 0 sends each one as it arrives. */
+  maxPerSecond?: number;
+  /** Events that may wait; when full, the lowest-priority one is dropped. */
+  capacity?: number;
+  /** How long an event may wait before it expires, in milliseconds. */
+  maxWaitMs?: number;
+  /** Waiting notifications with the same key are replaced by the newest one. */
+  collapseBy?: 'collapseId' | 'groupKey' | 'none';
+  /** Whether dropped and expired notifications are still displayed, without calling the listener, or discarded. */
+  overflow?: 'display' | 'discard';
+}
+
+/** Counters returned by {@link Notifications.getForegroundDeliveryStats}. */
+export interface ForegroundDeliveryStats extends Required<ForegroundDeliveryOptions> {
+  enabled: boolean;
+  size: number;
+  queued: number;
+  delivered: number;
+  collapsed: number;
+  dropped: number;
+  expired: number;
+}
+
+/** When unanswered `foregroundWillDisplay` events are resolved, see {@link Notifications.setWillDisplayDeadline}. */
+export interface WillDisplayDeadlineOptions {
+  /** How long the listener has to call `preventDefault` or `display`, in milliseconds; 0 never resolves natively. */
+  deadlineMs?: number;
+  /** Whether a notification still unanswered at the deadline is displayed or discarded. */
+  action?: 'display' | 'discard';
+}
+
+/** Counters returned by {@link Notifications.getWillDisplayEventStoreStats}. */
+export interface WillDisplayEventStoreStats {
+  /** Events waiting for the listener to call `preventDefault` or `display`. */
+  size: number;
+  capacity: number;
+  ttlMs: number;
+  evicted: number;
+  expired: number;
+  decisionDeadlineMs: number;
+  autoDisplayed: number;
+  autoDiscarded: number;
+}
+
+/** Counters returned by {@link Notifications.getNotificationPayloadCacheStats}. */
+export interface NotificationPayloadCacheStats {
+  /** Payloads held, and their total length in characters. */
+  size: number;
+  chars: number;
+  maxEntries: number;
+  maxChars: number;
+  maxAgeMs: number;
+  /** Clicks that reused the payload encoded for `foregroundWillDisplay`, and clicks that had to encode it again. */
+  hits: number;
+  misses: number;
+  evicted: number;
+}
+
 export default class Notifications {
   private _permissionObserverList: ((event: boolean) => void)[] = [];
   private _notificationClickedListeners: ((event: NotificationClickEvent) => void)[] = [];
@@ -22,6 +82,7 @@ export default class Notifications {
   private _hasRegisteredClickListener = false;
   private _hasRegisteredForegroundWillDisplayListener = false;
   private _hasRegisteredPermissionListener = false;
+  private _notificationFields?: NotificationField[];
 
   private _processFunctionList<T>(array: ((event: T) => void)[], param: T): void {
     for (let i = 0; i < array.length; i++) {
@@ -143,7 +204,7 @@ export default class Notifications {
           noop,
           'OneSignalPush',
           'addNotificationClickListener',
-          [],
+          this._notificationFieldArgs(),
         );
       }
     } else if (event === 'foregroundWillDisplay') {
@@ -165,7 +226,7 @@ export default class Notifications {
           noop,
           'OneSignalPush',
           'addForegroundLifecycleListener',
-          [],
+          this._notificationFieldArgs(),
         );
       }
     } else if (event === 'permissionChange') {
@@ -186,6 +247,85 @@ export default class Notifications {
     }
   }
 
+  /**
+   * Android only.
+   * Limits the notification fields sent with `click` and `foregroundWillDisplay` events to the ones listed,
+   * so the native side skips serializing and sending the rest (e.g. `rawPayload`). `notificationId` is always sent.
+   * Pass nothing to send every field again. Call before adding listeners to apply it from the first event.
+   * @param  {NotificationField[]} fields
+   * @returns void
+   */
+  setNotificationFields(fields?: NotificationField[] | null): void {
+    this._notificationFields = fields && fields.length > 0 ? fields : undefined;
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setNotificationFields', [
+      this._notificationFields ?? null,
+    ]);
+  }
+
+  private _notificationFieldArgs(): unknown[] {
+    return this._notificationFields ? [this._notificationFields] : [];
+  }
+
+  /**
+   * Android only.
+   * Paces `foregroundWillDisplay` events so a burst of notifications doesn't flood the JS thread. Waiting events
+   * are sent highest priority first, and those that can't be sent in time are displayed or discarded per `overflow`.
+   * Omitted options keep their current value.
+   * @param  {ForegroundDeliveryOptions} options
+   * @returns void
+   */
+  setForegroundDelivery(options: ForegroundDeliveryOptions): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setForegroundDelivery', [options]);
+  }
+
+  /**
+   * Android only.
+   * Resolves `foregroundWillDisplay` events natively when the listener hasn't answered in time, e.g. because it threw
+   * or the WebView is busy, so the notification isn't lost. Answer times are reported under `decisions` in
+   * `getBridgeMetrics()`. Omitted options keep their current value.
+   * @param  {WillDisplayDeadlineOptions} options
+   * @returns void
+   */
+  setWillDisplayDeadline(options: WillDisplayDeadlineOptions): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setWillDisplayDeadline', [options]);
+  }
+
+  /**
+   * Android only.
+   * Returns the foreground delivery settings and how many events were queued, delivered, collapsed, dropped and
+   * expired.
+   * @returns {Promise<ForegroundDeliveryStats>}
+   */
+  getForegroundDeliveryStats(): Promise<ForegroundDeliveryStats> {
+    return new Promise<ForegroundDeliveryStats>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getForegroundDeliveryStats', []);
+    });
+  }
+
+  /**
+   * Android only.
+   * Returns how many `foregroundWillDisplay` events are waiting for an answer, and how many were evicted, expired or
+   * resolved at the deadline.
+   * @returns {Promise<WillDisplayEventStoreStats>}
+   */
+  getWillDisplayEventStoreStats(): Promise<WillDisplayEventStoreStats> {
+    return new Promise<WillDisplayEventStoreStats>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getWillDisplayEventStoreStats', []);
+    });
+  }
+
+  /**
+   * Android only.
+   * Returns how often a notification tapped after `foregroundWillDisplay` reused the payload already encoded for that
+   * event, and how many payloads the cache holds.
+   * @returns {Promise<NotificationPayloadCacheStats>}
+   */
+  getNotificationPayloadCacheStats(): Promise<NotificationPayloadCacheStats> {
+    return new Promise<NotificationPayloadCacheStats>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getNotificationPayloadCacheStats', []);
+    });
+  }
+
   /**
    * Remove listeners for notification events.
    * @param event
@@ -4,6 +4,33 @@ export type ReceivedEvent = Omit<OSNotification, 'display' | 'rawPayload'> & {
   rawPayload: string | object;
 };
 
+/**
+ * Notification fields the Android bridge can be limited to with
+ * {@link Notifications.setNotificationFields}. `notificationId` is always sent.
+ */
+export type NotificationField =
+  | 'body'
+  | 'sound'
+  | 'title'
+  | 'launchURL'
+  | 'rawPayload'
+  | 'actionButtons'
+  | 'additionalData'
+  | 'notificationId'
+  | 'groupKey'
+  | 'groupMessage'
+  | 'groupedNotifications'
+  | 'ledColor'
+  | 'priority'
+  | 'smallIcon'
+  | 'largeIcon'
+  | 'bigPicture'
+  | 'collapseId'
+  | 'fromProjectNumber'
+  | 'smallIconAccentColor'
+  | 'lockScreenVisibility'
+  | 'androidNotificationId';
+
 export class OSNotification {
   body: string;
   sound?: string;
@@ -63,4 +63,20 @@ describe('Session', () => {
       );
     });
   });
+
+  describe('setOutcomeAggregation', () => {
+    test('should call cordova.exec with the options', () => {
+      const options = { flushIntervalMs: 1000, flushOnBackground: false };
+
+      session.setOutcomeAggregation(options);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setOutcomeAggregation',
+        [options],
+      );
+    });
+  });
 });
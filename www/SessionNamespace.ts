@@ -1,5 +1,15 @@
 import { noop } from './helpers';
 
+/**
+ * Options for {@link Session.setOutcomeAggregation}. A `flushIntervalMs` of 0 (the default) disables aggregation.
+ * Omitted options keep their current value.
+ */
+export interface OutcomeAggregationOptions {
+  flushIntervalMs?: number;
+  /** Report pending outcomes when the app goes to the background. Defaults to true. */
+  flushOnBackground?: boolean;
+}
+
 export default class Session {
   /**
    * Outcomes
@@ -32,4 +42,16 @@ export default class Session {
   addOutcomeWithValue(name: string, value: number): void {
     window.cordova.exec(noop, noop, 'OneSignalPush', 'addOutcomeWithValue', [name, value]);
   }
+
+  /**
+   * Android only.
+   * Sums `addOutcomeWithValue` values per outcome name and reports each total once per `flushIntervalMs`.
+   * `addOutcome` calls are only deferred to the same time, each still reported on its own, and repeat
+   * `addUniqueOutcome` calls for a name already sent this session are dropped natively.
+   * @param  {OutcomeAggregationOptions} options
+   * @returns void
+   */
+  setOutcomeAggregation(options: OutcomeAggregationOptions): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setOutcomeAggregation', [options]);
+  }
 }
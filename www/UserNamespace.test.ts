@@ -319,6 +319,69 @@ describe('User', () => {
       const promise = user.getTags();
       await expect(promise).rejects.toThrow('Failed to get tags');
     });
+
+    test('should pass the version to cordova.exec and resolve with the changes', async () => {
+      const changes = { version: 4, full: false, changed: { level: 'gold' }, removed: ['status'] };
+
+      mockExec.mockImplementation((resolve) => {
+        resolve(changes);
+      });
+
+      const result = await user.getTags(3);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'getTags',
+        [3],
+      );
+      expect(result).toEqual(changes);
+    });
+  });
+
+  describe('setTagWriteCombining', () => {
+    test('should call cordova.exec with the options', () => {
+      const options = { flushIntervalMs: 500, maxPendingKeys: 50 };
+      user.setTagWriteCombining(options);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setTagWriteCombining',
+        [options],
+      );
+    });
+  });
+
+  describe('setAliasWriteCombining', () => {
+    test('should call cordova.exec with the options', () => {
+      const options = { flushIntervalMs: 1000 };
+      user.setAliasWriteCombining(options);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setAliasWriteCombining',
+        [options],
+      );
+    });
+  });
+
+  describe('flushPendingWrites', () => {
+    test('should call cordova.exec', () => {
+      user.flushPendingWrites();
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'flushPendingWrites',
+        [],
+      );
+    });
   });
 
   describe('addEventListener', () => {
@@ -528,5 +591,35 @@ describe('User', () => {
       expect(window.cordova.exec).not.toHaveBeenCalled();
       consoleSpy.mockRestore();
     });
+
+    test('should log native errors', () => {
+      const consoleSpy = vi.spyOn(console, 'error').mockImplementation(() => {});
+      mockExec.mockImplementation((_resolve, reject) => {
+        reject('Could not track event: Nested deeper than 32 levels at $.a');
+      });
+
+      user.trackEvent('purchase', { a: {} });
+
+      expect(consoleSpy).toHaveBeenCalledWith(
+        'Could not track event: Nested deeper than 32 levels at $.a',
+      );
+      consoleSpy.mockRestore();
+    });
+  });
+
+  describe('setTrackEventLimits', () => {
+    test('should call cordova.exec with the limits', () => {
+      const limits = { maxDepth: 8, maxKeys: 200, maxStringLength: 1024 };
+
+      user.setTrackEventLimits(limits);
+
+      expect(window.cordova.exec).toHaveBeenCalledWith(
+        expect.any(Function),
+        expect.any(Function),
+        'OneSignalPush',
+        'setTrackEventLimits',
+        [limits],
+      );
+    });
   });
 });
@@ -11,6 +11,32 @@ export interface UserChangedState {
   current: UserState;
 }
 
+/** Result of {@link User.getTags} called with a version. */
+export interface TagChanges {
+  version: number;
+  /** True when `values` holds every tag and replaces whatever the caller had. */
+  full: boolean;
+  values?: { [key: string]: string };
+  changed?: { [key: string]: string };
+  removed?: string[];
+}
+
+/** Limits for {@link User.setTrackEventLimits}. Defaults: depth 32, 5000 keys, 65536 characters. */
+export interface TrackEventLimits {
+  maxDepth?: number;
+  maxKeys?: number;
+  maxStringLength?: number;
+}
+
+/**
+ * Options for {@link User.setTagWriteCombining} and {@link User.setAliasWriteCombining}. A `flushIntervalMs` of 0
+ * (the default) disables combining. Omitted options keep their current value.
+ */
+export interface WriteCombiningOptions {
+  flushIntervalMs?: number;
+  maxPendingKeys?: number;
+}
+
 export default class User {
   // The push subscription associated to the current user.
   pushSubscription: PushSubscription = new PushSubscription();
@@ -174,12 +200,58 @@ export default class User {
   /** Returns the local tags for the current user.
    * @returns Promise<{ [key: string]: string }>
    */
-  getTags(): Promise<{ [key: string]: string }> {
-    return new Promise<{ [key: string]: string }>((resolve, reject) => {
-      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getTags', []);
+  getTags(): Promise<{ [key: string]: string }>;
+  /**
+   * Android only.
+   * Returns only the tags changed since `sinceVersion`, a `version` from an earlier call (start with 0).
+   * When that version can no longer be diffed against, e.g. after login or logout, the result has `full: true`
+   * and carries every tag in `values`. Tags set or removed through this plugin show up right away, even while
+   * combined writes are still pending; tags changed elsewhere show up within a minute.
+   * @param  {number} sinceVersion
+   * @returns Promise<TagChanges>
+   */
+  getTags(sinceVersion: number): Promise<TagChanges>;
+  getTags(sinceVersion?: number): Promise<{ [key: string]: string } | TagChanges> {
+    const args = sinceVersion === undefined ? [] : [sinceVersion];
+    return new Promise<{ [key: string]: string } | TagChanges>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getTags', args);
     });
   }
 
+  /**
+   * Android only.
+   * Holds tag adds and removes for up to `flushIntervalMs` (or until `maxPendingKeys` keys are pending) and sends
+   * them as one net add and one net remove, dropping writes that repeat what was last sent for a tag. Pending writes
+   * are also sent when the app goes to the background, on login/logout, before {@link getTags} reads the SDK's
+   * tags, and on {@link flushPendingWrites}.
+   * @param  {WriteCombiningOptions} options
+   * @returns void
+   */
+  setTagWriteCombining(options: WriteCombiningOptions): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setTagWriteCombining', [options]);
+  }
+
+  /**
+   * Android only.
+   * Like {@link setTagWriteCombining}, for alias adds and removes. Aliases already set through the plugin with the
+   * same id, e.g. re-added on every resume, are never sent again, whether combining is enabled or not.
+   * @param  {WriteCombiningOptions} options
+   * @returns void
+   */
+  setAliasWriteCombining(options: WriteCombiningOptions): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setAliasWriteCombining', [options]);
+  }
+
+  /**
+   * Android only.
+   * Sends any tag and alias writes held by {@link setTagWriteCombining} and {@link setAliasWriteCombining}, and any
+   * outcomes held by `OneSignal.Session.setOutcomeAggregation`, now.
+   * @returns void
+   */
+  flushPendingWrites(): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'flushPendingWrites', []);
+  }
+
   /**
    * Add a callback that fires when the OneSignal User state changes.
    * The native bridge subscription is registered once per namespace instance;
@@ -237,6 +309,19 @@ export default class User {
       return;
     }
     const args = properties ? [name, properties] : [name];
-    window.cordova.exec(noop, noop, 'OneSignalPush', 'trackEvent', args);
+    const onError = (error: string) => console.error(error);
+    window.cordova.exec(noop, onError, 'OneSignalPush', 'trackEvent', args);
+  }
+
+  /**
+   * Android only.
+   * Sets the limits `trackEvent` properties are checked against natively. An event whose properties nest deeper,
+   * hold more keys and array elements in total, or carry a longer key or string than allowed is not sent, and the
+   * reason is logged with `console.error`. Omitted limits keep their current value.
+   * @param  {TrackEventLimits} limits
+   * @returns void
+   */
+  setTrackEventLimits(limits: TrackEventLimits): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setTrackEventLimits', [limits]);
   }
 }
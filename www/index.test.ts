@@ -48,6 +48,124 @@ describe('OneSignalPlugin', () => {
     );
   });
 
+  test('should pass initialize options to init', () => {
+    plugin.initialize(APP_ID, { async: true });
+
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'init',
+      [APP_ID, { async: true }],
+    );
+  });
+
+  test('should call cordova.exec for getInitTimings', async () => {
+    const timings = {
+      mode: 'async',
+      finished: true,
+      phasesMs: { wrapperSetup: 0.1, initWithContext: 12.5 },
+      totalMs: 13,
+    };
+    mockExec.mockImplementation((resolve) => {
+      resolve(timings);
+    });
+
+    await expect(plugin.getInitTimings()).resolves.toEqual(timings);
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'getInitTimings',
+      [],
+    );
+  });
+
+  test('should call cordova.exec for getBridgeMetrics', async () => {
+    const metrics = {
+      enabled: true,
+      sinceMs: 1700000000000,
+      histogramBucketsUs: [1, 2, 4],
+      actions: { login: { count: 1, errors: 0, totalMs: 0.2, meanMs: 0.2, maxMs: 0.2, histogram: [0, 0, 1] } },
+      events: {},
+      callbacks: {},
+      decisions: {},
+    };
+    mockExec.mockImplementation((resolve) => {
+      resolve(metrics);
+    });
+
+    await expect(plugin.getBridgeMetrics()).resolves.toEqual(metrics);
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'getBridgeMetrics',
+      [false],
+    );
+
+    await plugin.getBridgeMetrics(true);
+    expect(window.cordova.exec).toHaveBeenLastCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'getBridgeMetrics',
+      [true],
+    );
+  });
+
+  test('should call cordova.exec for setObserverCoalescing', () => {
+    plugin.setObserverCoalescing({ pushSubscriptionMs: 250, userStateMs: 500 });
+
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'setObserverCoalescing',
+      [{ pushSubscriptionMs: 250, userStateMs: 500 }],
+    );
+  });
+
+  test('should call cordova.exec for setEventBufferConfig', () => {
+    plugin.setEventBufferConfig(32);
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'setEventBufferConfig',
+      [32, 'dropOldest'],
+    );
+
+    plugin.setEventBufferConfig(8, 'dropNewest');
+    expect(window.cordova.exec).toHaveBeenLastCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'setEventBufferConfig',
+      [8, 'dropNewest'],
+    );
+  });
+
+  test('should call cordova.exec for getEventBufferStats', async () => {
+    const stats = {
+      capacity: 16,
+      dropPolicy: 'dropOldest',
+      buffers: { notificationClick: { size: 2, dropped: 0 } },
+    };
+    mockExec.mockImplementation((resolve) => {
+      resolve(stats);
+    });
+
+    await expect(plugin.getEventBufferStats()).resolves.toEqual(stats);
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'getEventBufferStats',
+      [],
+    );
+  });
+
   test('should call cordova.exec for login', () => {
     const externalId = 'test-user-123';
     plugin.login(externalId);
@@ -95,4 +213,96 @@ describe('OneSignalPlugin', () => {
       [true],
     );
   });
+
+  test('should call cordova.exec for executeBatch', async () => {
+    const calls = [{ action: 'login', args: ['test-user-123'] }, { action: 'getExternalId' }];
+    const results = [
+      { action: 'login', success: true, result: null },
+      { action: 'getExternalId', success: true, result: 'test-user-123' },
+    ];
+    mockExec.mockImplementation((resolve) => {
+      resolve(results);
+    });
+
+    await expect(plugin.executeBatch(calls)).resolves.toEqual(results);
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'executeBatch',
+      [calls],
+    );
+  });
+
+  test('should call cordova.exec for getStateSnapshot', async () => {
+    const snapshot = { externalId: 'test-user-123', pushSubscriptionOptedIn: true };
+    mockExec.mockImplementation((resolve) => {
+      resolve(snapshot);
+    });
+
+    await expect(
+      plugin.getStateSnapshot(['externalId', 'pushSubscriptionOptedIn']),
+    ).resolves.toEqual(snapshot);
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'getStateSnapshot',
+      [['externalId', 'pushSubscriptionOptedIn']],
+    );
+  });
+
+  test('should request all fields for getStateSnapshot by default', () => {
+    plugin.getStateSnapshot();
+
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'getStateSnapshot',
+      [null],
+    );
+  });
+
+  test('should register a subscription with its own id for addEventSubscription', () => {
+    const handler = () => {};
+    const clickId = plugin.addEventSubscription('notificationClick', handler);
+    const permissionId = plugin.addEventSubscription('permissionChange', handler);
+
+    expect(clickId).not.toEqual(permissionId);
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      handler,
+      expect.any(Function),
+      'OneSignalPush',
+      'addNotificationClickListener',
+      [null, clickId],
+    );
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      handler,
+      expect.any(Function),
+      'OneSignalPush',
+      'addPermissionObserver',
+      [permissionId],
+    );
+  });
+
+  test('should call cordova.exec for removeEventSubscription', () => {
+    const id = plugin.addEventSubscription('inAppMessageWillDisplay', () => {});
+    plugin.removeEventSubscription(id);
+
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'setOnWillDisplayInAppMessageHandler',
+      [id],
+    );
+    expect(window.cordova.exec).toHaveBeenCalledWith(
+      expect.any(Function),
+      expect.any(Function),
+      'OneSignalPush',
+      'removeEventSubscription',
+      [id],
+    );
+  });
 });
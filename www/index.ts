@@ -25,6 +25,16 @@
  * THE SOFTWARE.
  */
 import Debug from './DebugNamespace';
+import type { PushSubscriptionChangedState } from './PushSubscriptionNamespace';
+import type {
+  InAppMessageClickEvent,
+  InAppMessageDidDismissEvent,
+  InAppMessageDidDisplayEvent,
+  InAppMessageWillDismissEvent,
+  InAppMessageWillDisplayEvent,
+} from './types/InAppMessage';
+import type { NotificationClickEvent } from './types/NotificationClicked';
+import type { UserChangedState } from './UserNamespace';
 import { noop } from './helpers';
 import InAppMessages from './InAppMessagesNamespace';
 import LiveActivities from './LiveActivitiesNamespace';
@@ -41,6 +51,119 @@ declare global {
   }
 }
 
+/** Options for {@link OneSignalPlugin.initialize}. */
+export interface InitializeOptions {
+  /**
+   * Android only. Return from the native call immediately and finish setting up the native SDK in the
+   * background. Calls made in the meantime are queued until setup completes, and fail if setup fails.
+   */
+  async?: boolean;
+}
+
+/** Per-phase native initialization timings returned by {@link OneSignalPlugin.getInitTimings}. */
+export interface InitTimings {
+  mode: 'sync' | 'async' | null;
+  finished: boolean;
+  phasesMs: { [phase: string]: number };
+  totalMs?: number;
+}
+
+/** Call count, error count and latency for one action, event or callback in {@link BridgeMetrics}. */
+export interface BridgeMetricStats {
+  count: number;
+  errors: number;
+  totalMs: number;
+  meanMs: number;
+  maxMs: number;
+  /** Call counts per bucket; bucket i holds calls faster than `histogramBucketsUs[i]` microseconds. */
+  histogram: number[];
+}
+
+/** Native bridge metrics returned by {@link OneSignalPlugin.getBridgeMetrics}. */
+export interface BridgeMetrics {
+  enabled: boolean;
+  sinceMs: number;
+  histogramBucketsUs: number[];
+  actions: { [action: string]: BridgeMetricStats };
+  events: { [event: string]: BridgeMetricStats };
+  callbacks: { [callback: string]: BridgeMetricStats };
+  /** How long JS took to answer events the native side waits on; events resolved at a deadline count as errors. */
+  decisions: { [event: string]: BridgeMetricStats };
+}
+
+/** Coalescing windows for {@link OneSignalPlugin.setObserverCoalescing}, in milliseconds; 0 disables coalescing. */
+export interface ObserverCoalescingOptions {
+  pushSubscriptionMs?: number;
+  userStateMs?: number;
+}
+
+/** Which event a full buffer gives up, see {@link OneSignalPlugin.setEventBufferConfig}. */
+export type EventBufferDropPolicy = 'dropOldest' | 'dropNewest';
+
+/** Events held natively until JS registers a listener, returned by {@link OneSignalPlugin.getEventBufferStats}. */
+export interface EventBufferStats {
+  capacity: number;
+  dropPolicy: EventBufferDropPolicy;
+  /** Buffered and dropped events per native event name. */
+  buffers: { [event: string]: { size: number; dropped: number } };
+}
+
+/** A single plugin call dispatched through {@link OneSignalPlugin.executeBatch}. */
+export interface BatchCall {
+  action: string;
+  args?: unknown[];
+}
+
+/** The outcome of one {@link BatchCall}, in the same position as the call. */
+export interface BatchCallResult {
+  action: string;
+  success: boolean;
+  result: unknown;
+}
+
+/** State returned by {@link OneSignalPlugin.getStateSnapshot}. */
+export interface StateSnapshot {
+  onesignalId: string | null;
+  externalId: string | null;
+  pushSubscriptionId: string | null;
+  pushSubscriptionToken: string | null;
+  pushSubscriptionOptedIn: boolean;
+  tags: { [key: string]: string };
+  permission: boolean;
+  canRequestPermission: boolean;
+  isPaused: boolean;
+}
+
+export type StateSnapshotField = keyof StateSnapshot;
+
+/** Payloads of the native events {@link OneSignalPlugin.addEventSubscription} can subscribe to. */
+export interface NativeEventPayloadMap {
+  notificationClick: NotificationClickEvent;
+  inAppMessageClick: InAppMessageClickEvent;
+  inAppMessageWillDisplay: InAppMessageWillDisplayEvent;
+  inAppMessageDidDisplay: InAppMessageDidDisplayEvent;
+  inAppMessageWillDismiss: InAppMessageWillDismissEvent;
+  inAppMessageDidDismiss: InAppMessageDidDismissEvent;
+  permissionChange: boolean;
+  pushSubscriptionChange: PushSubscriptionChangedState;
+  userStateChange: UserChangedState;
+}
+
+export type NativeEventName = keyof NativeEventPayloadMap;
+
+/** The native action that registers a callback for each event, and the arguments that precede the subscription id. */
+const EVENT_SUBSCRIPTION_ACTIONS: { [E in NativeEventName]: [string, unknown[]] } = {
+  notificationClick: ['addNotificationClickListener', [null]],
+  inAppMessageClick: ['setInAppMessageClickHandler', []],
+  inAppMessageWillDisplay: ['setOnWillDisplayInAppMessageHandler', []],
+  inAppMessageDidDisplay: ['setOnDidDisplayInAppMessageHandler', []],
+  inAppMessageWillDismiss: ['setOnWillDismissInAppMessageHandler', []],
+  inAppMessageDidDismiss: ['setOnDidDismissInAppMessageHandler', []],
+  permissionChange: ['addPermissionObserver', []],
+  pushSubscriptionChange: ['addPushSubscriptionObserver', []],
+  userStateChange: ['addUserStateObserver', []],
+};
+
 export class OneSignalPlugin {
   User: User = new User();
   Debug: Debug = new Debug();
@@ -51,13 +174,15 @@ export class OneSignalPlugin {
   LiveActivities: LiveActivities = new LiveActivities();
 
   private _appID = '';
+  private _nextSubscriptionId = 0;
 
   /**
    * Initializes the OneSignal SDK. This should be called during startup of the application.
    * @param  {string} appId
+   * @param  {InitializeOptions} options
    * @returns void
    */
-  initialize(appId: string): void {
+  initialize(appId: string, options?: InitializeOptions): void {
     this._appID = appId;
 
     const observerCallback = () => {
@@ -65,7 +190,95 @@ export class OneSignalPlugin {
       this.Notifications._setPropertyAndObserver();
     };
 
-    window.cordova.exec(observerCallback, noop, 'OneSignalPush', 'init', [this._appID]);
+    const args = options ? [this._appID, options] : [this._appID];
+    window.cordova.exec(observerCallback, noop, 'OneSignalPush', 'init', args);
+  }
+
+  /**
+   * Android only.
+   * Returns how long each phase of native initialization took, e.g. to measure its impact on time-to-interactive.
+   * @returns {Promise<InitTimings>}
+   */
+  getInitTimings(): Promise<InitTimings> {
+    return new Promise<InitTimings>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getInitTimings', []);
+    });
+  }
+
+  /**
+   * Android only.
+   * Returns per-action, per-event and per-callback counts, errors and latency histograms for the native bridge.
+   * @param  {boolean} reset Clears the metrics after reading them.
+   * @returns {Promise<BridgeMetrics>}
+   */
+  getBridgeMetrics(reset = false): Promise<BridgeMetrics> {
+    return new Promise<BridgeMetrics>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getBridgeMetrics', [reset]);
+    });
+  }
+
+  /**
+   * Android only.
+   * Holds push subscription and user state changes for the given window so a burst of intermediate states
+   * (e.g. during login, logout or a token refresh) arrives as one change event, carrying the earliest
+   * `previous` and the latest `current` state. Omitted observers keep their current window.
+   * @param  {ObserverCoalescingOptions} options
+   * @returns void
+   */
+  setObserverCoalescing(options: ObserverCoalescingOptions): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setObserverCoalescing', [options]);
+  }
+
+  /**
+   * Android only.
+   * Sets how many events, per event type, are held natively while no listener is registered, e.g. a notification
+   * click that cold-starts the app before the JS bundle has loaded. Held events are sent in order once a listener is
+   * added.
+   * @param  {number} capacity Events held per event type.
+   * @param  {EventBufferDropPolicy} dropPolicy Whether a full buffer drops its oldest event or the new one.
+   * @returns void
+   */
+  setEventBufferConfig(capacity: number, dropPolicy: EventBufferDropPolicy = 'dropOldest'): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'setEventBufferConfig', [capacity, dropPolicy]);
+  }
+
+  /**
+   * Android only.
+   * Returns the event buffer settings and how many events each buffer holds and has dropped.
+   * @returns {Promise<EventBufferStats>}
+   */
+  getEventBufferStats(): Promise<EventBufferStats> {
+    return new Promise<EventBufferStats>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getEventBufferStats', []);
+    });
+  }
+
+  /**
+   * Android only.
+   * Subscribes a handler to a native event with its own callback, alongside any listeners added through the
+   * namespaces, which share one. Each event is serialized once natively and sent to every subscription.
+   * @param  {NativeEventName} event
+   * @param  {Function} handler
+   * @returns {string} The subscription id to pass to {@link OneSignalPlugin.removeEventSubscription}.
+   */
+  addEventSubscription<E extends NativeEventName>(
+    event: E,
+    handler: (payload: NativeEventPayloadMap[E]) => void,
+  ): string {
+    const [action, args] = EVENT_SUBSCRIPTION_ACTIONS[event];
+    const id = `sub-${++this._nextSubscriptionId}`;
+    window.cordova.exec(handler, noop, 'OneSignalPush', action, [...args, id]);
+    return id;
+  }
+
+  /**
+   * Android only.
+   * Stops delivering events to a subscription added with {@link OneSignalPlugin.addEventSubscription}.
+   * @param  {string} id
+   * @returns void
+   */
+  removeEventSubscription(id: string): void {
+    window.cordova.exec(noop, noop, 'OneSignalPush', 'removeEventSubscription', [id]);
   }
 
   /**
@@ -103,6 +316,32 @@ export class OneSignalPlugin {
   setConsentGiven(granted: boolean): void {
     window.cordova.exec(noop, noop, 'OneSignalPush', 'setPrivacyConsentGiven', [granted]);
   }
+
+  /**
+   * Android only.
+   * Reads the user, push subscription, permission and in-app messaging state in a single native call.
+   * Pass a list of fields to only collect those; all fields are returned by default.
+   * @param  {StateSnapshotField[]} fields
+   * @returns {Promise<Partial<StateSnapshot>>}
+   */
+  getStateSnapshot(fields?: StateSnapshotField[]): Promise<Partial<StateSnapshot>> {
+    return new Promise<Partial<StateSnapshot>>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'getStateSnapshot', [fields ?? null]);
+    });
+  }
+
+  /**
+   * Android only.
+   * Runs several plugin actions in order with a single native bridge call, e.g. during app startup.
+   * Listener registration and permission prompts cannot be batched and are reported as failed entries.
+   * @param  {BatchCall[]} calls
+   * @returns {Promise<BatchCallResult[]>}
+   */
+  executeBatch(calls: BatchCall[]): Promise<BatchCallResult[]> {
+    return new Promise<BatchCallResult[]>((resolve, reject) => {
+      window.cordova.exec(resolve, reject, 'OneSignalPush', 'executeBatch', [calls]);
+    });
+  }
 }
 
 //-------------------------------------------------------------------
@@ -120,13 +359,23 @@ if (!window.plugins.OneSignal) {
 export { LogLevel } from './DebugNamespace';
 export { NotificationWillDisplayEvent } from './NotificationReceivedEvent';
 export { OSNotificationPermission } from './NotificationsNamespace';
+export type {
+  ForegroundDeliveryOptions,
+  ForegroundDeliveryStats,
+  NotificationPayloadCacheStats,
+  WillDisplayDeadlineOptions,
+  WillDisplayEventStoreStats,
+} from './NotificationsNamespace';
 export { OSNotification } from './OSNotification';
+export type { NotificationField } from './OSNotification';
 
 export type {
   PushSubscriptionChangedState,
   PushSubscriptionState,
 } from './PushSubscriptionNamespace';
 
+export type { OutcomeAggregationOptions } from './SessionNamespace';
+
 export type { NotificationClickEvent, NotificationClickResult } from './types/NotificationClicked';
 
 export type {
@@ -140,6 +389,12 @@ export type {
   OSInAppMessage,
 } from './types/InAppMessage';
 
-export type { UserChangedState, UserState } from './UserNamespace';
+export type {
+  TagChanges,
+  TrackEventLimits,
+  UserChangedState,
+  UserState,
+  WriteCombiningOptions,
+} from './UserNamespace';
 
 export default OneSignal;